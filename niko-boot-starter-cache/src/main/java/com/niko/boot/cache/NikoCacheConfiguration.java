@@ -0,0 +1,148 @@
+package com.niko.boot.cache;
+
+import java.nio.file.Paths;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import com.niko.boot.cache.bloom.BloomFilterInitializer;
+import com.niko.boot.cache.bloom.BloomFilterMetrics;
+import com.niko.boot.cache.bloom.BloomFilterRegistry;
+import com.niko.boot.cache.hotkey.HotKeyDetector;
+import com.niko.boot.cache.hotkey.HotKeyEndpoint;
+import com.niko.boot.cache.hotkey.HotKeyMetrics;
+import com.niko.boot.cache.offheap.OffHeapStoreMetrics;
+import com.niko.boot.cache.serializer.NikoBinaryRedisSerializer;
+import com.niko.boot.cache.warmup.CacheSnapshotFile;
+import com.niko.boot.cache.warmup.CacheWarmupRunner;
+import com.niko.boot.cache.warmup.CacheWarmupSource;
+import com.niko.boot.cache.support.CacheInvalidationBus;
+import com.niko.boot.cache.support.NikoTwoLevelCacheManager;
+
+/**
+ * 缓存配置
+ * niko.cache.enabled=true 时注册两级缓存管理器 cacheManager（Spring Boot 默认的 CacheManager 随之退让），
+ * 配合 @EnableCaching 与 @Cacheable 使用
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "niko.cache", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(NikoCacheProperties.class)
+public class NikoCacheConfiguration {
+
+    /**
+     * 缓存值序列化器，默认为紧凑二进制格式
+     */
+    @Bean
+    public RedisSerializer<Object> nikoCacheValueSerializer(NikoCacheProperties properties) {
+        NikoCacheProperties.Serializer config = properties.getSerializer();
+        if (config.getType() == NikoCacheProperties.SerializerType.JDK) {
+            return new JdkSerializationRedisSerializer();
+        }
+        NikoBinaryRedisSerializer serializer = new NikoBinaryRedisSerializer(config.getCompressionThreshold(), null);
+        serializer.register(config.getRegisteredClasses().toArray(new Class<?>[0]));
+        return serializer;
+    }
+
+    /**
+     * 缓存专用 RedisTemplate，不参与按类型注入，避免业务代码注入 RedisTemplate&lt;String, Object&gt; 时拿到二进制序列化的模板
+     */
+    @Bean(autowireCandidate = false)
+    public RedisTemplate<String, Object> nikoCacheRedisTemplate(RedisConnectionFactory connectionFactory, RedisSerializer<Object> nikoCacheValueSerializer) {
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<String, Object>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(StringRedisSerializer.UTF_8);
+        redisTemplate.setHashKeySerializer(StringRedisSerializer.UTF_8);
+        redisTemplate.setValueSerializer(nikoCacheValueSerializer);
+        redisTemplate.setHashValueSerializer(nikoCacheValueSerializer);
+        return redisTemplate;
+    }
+
+    @Bean
+    public CacheInvalidationBus nikoCacheInvalidationBus(RedisConnectionFactory connectionFactory, NikoCacheProperties properties) {
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        stringRedisTemplate.afterPropertiesSet();
+        return new CacheInvalidationBus(stringRedisTemplate, properties.getInvalidationChannel());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer nikoCacheListenerContainer(RedisConnectionFactory connectionFactory, CacheInvalidationBus invalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidationBus, new ChannelTopic(invalidationBus.getChannel()));
+        return container;
+    }
+
+    @Bean
+    public NikoTwoLevelCacheManager cacheManager(NikoCacheProperties properties, RedisConnectionFactory connectionFactory,
+            RedisSerializer<Object> nikoCacheValueSerializer, CacheInvalidationBus invalidationBus, ObjectProvider<HotKeyDetector> hotKeyDetector) {
+        return new NikoTwoLevelCacheManager(properties, nikoCacheRedisTemplate(connectionFactory, nikoCacheValueSerializer), invalidationBus,
+                hotKeyDetector.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "niko.cache.hot-key", name = "enabled", havingValue = "true")
+    public HotKeyDetector nikoHotKeyDetector(NikoCacheProperties properties, CacheInvalidationBus invalidationBus) {
+        return new HotKeyDetector(properties.getHotKey(), invalidationBus);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "niko.cache.hot-key", name = "enabled", havingValue = "true")
+    public HotKeyMetrics nikoHotKeyMetrics(HotKeyDetector nikoHotKeyDetector) {
+        return new HotKeyMetrics(nikoHotKeyDetector);
+    }
+
+    @Bean
+    public BloomFilterRegistry nikoBloomFilterRegistry(NikoCacheProperties properties, RedisConnectionFactory connectionFactory,
+            RedisSerializer<Object> nikoCacheValueSerializer, CacheInvalidationBus invalidationBus, ObjectProvider<BloomFilterInitializer> initializers) {
+        return new BloomFilterRegistry(properties, nikoCacheRedisTemplate(connectionFactory, nikoCacheValueSerializer), invalidationBus,
+                initializers.orderedStream().collect(Collectors.toList()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "niko.cache.warmup", name = "enabled", havingValue = "true")
+    public CacheWarmupRunner nikoCacheWarmupRunner(NikoCacheProperties properties, NikoTwoLevelCacheManager cacheManager,
+            ObjectProvider<CacheWarmupSource<?>> sources, RedisSerializer<Object> nikoCacheValueSerializer) {
+        NikoCacheProperties.Warmup warmup = properties.getWarmup();
+        CacheSnapshotFile snapshotFile = warmup.getSnapshotFile() == null || warmup.getSnapshotFile().isEmpty()
+                ? null
+                : new CacheSnapshotFile(Paths.get(warmup.getSnapshotFile()), nikoCacheValueSerializer);
+        return new CacheWarmupRunner(warmup, cacheManager, sources.orderedStream().collect(Collectors.toList()), snapshotFile);
+    }
+
+    @Bean
+    public BloomFilterMetrics nikoBloomFilterMetrics(BloomFilterRegistry nikoBloomFilterRegistry) {
+        return new BloomFilterMetrics(nikoBloomFilterRegistry);
+    }
+
+    @Bean
+    public OffHeapStoreMetrics nikoOffHeapStoreMetrics(NikoTwoLevelCacheManager cacheManager) {
+        return new OffHeapStoreMetrics(cacheManager);
+    }
+
+    /**
+     * 引入 actuator 时注册热点 key 端点
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    @ConditionalOnProperty(prefix = "niko.cache.hot-key", name = "enabled", havingValue = "true")
+    static class HotKeyEndpointConfiguration {
+
+        @Bean
+        public HotKeyEndpoint nikoHotKeyEndpoint(HotKeyDetector nikoHotKeyDetector) {
+            return new HotKeyEndpoint(nikoHotKeyDetector);
+        }
+    }
+}
@@ -0,0 +1,641 @@
+package com.niko.boot.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 缓存配置
+ * <pre>
+ * niko.cache.enabled=true
+ * niko.cache.key-prefix=niko:cache:
+ * niko.cache.batch-size=500
+ * niko.cache.cluster-slot-aware=false
+ * niko.cache.defaults.ttl=30m
+ * niko.cache.defaults.l1-max-size=10000
+ * niko.cache.defaults.l1-ttl=60s
+ * niko.cache.defaults.lease-time=3s
+ * niko.cache.defaults.early-refresh-beta=1.0
+ * niko.cache.caches.user.ttl=10m
+ * niko.cache.caches.user.l1-max-size=50000
+ * niko.cache.caches.dict.l1-enabled=false
+ * niko.cache.caches.region.off-heap-capacity=4GB
+ * niko.cache.caches.region.off-heap-ttl=2h
+ * niko.cache.off-heap-directory=/data/cache/offheap
+ * niko.cache.serializer.type=binary
+ * niko.cache.serializer.compression-threshold=1024
+ * niko.cache.serializer.registered-classes=com.example.User,com.example.Order
+ * niko.cache.bloom-filters.order.type=redis
+ * niko.cache.bloom-filters.order.expected-insertions=10000000
+ * niko.cache.bloom-filters.order.fpp=0.001
+ * niko.cache.hot-key.enabled=true
+ * niko.cache.hot-key.sample-rate=0.1
+ * niko.cache.hot-key.threshold=5000
+ * niko.cache.hot-key.window=10s
+ * niko.cache.hot-key.local-ttl=2s
+ * niko.cache.warmup.enabled=true
+ * niko.cache.warmup.parallelism=8
+ * niko.cache.warmup.keys.dict=gender,region
+ * niko.cache.warmup.snapshot-file=/data/cache/l1.snapshot
+ * </pre>
+ * caches 下未配置的项沿用 defaults
+ */
+@ConfigurationProperties(prefix = "niko.cache")
+public class NikoCacheProperties {
+
+    private boolean enabled;
+
+    /** Redis key 前缀，完整 key 为 keyPrefix + cacheName + "::" + key */
+    private String keyPrefix = "niko:cache:";
+
+    /** 跨节点 L1 失效通知频道 */
+    private String invalidationChannel = "niko:cache:invalidation";
+
+    /** 批量读写时每条 MGET / 每个管道的最大 key 数 */
+    private int batchSize = 500;
+
+    /** Redis Cluster 模式：批量读写按 slot 分组，同组的 key 在一条命令内执行 */
+    private boolean clusterSlotAware;
+
+    /** 堆外缓存映射文件目录，为空时使用直接内存（重启后丢失）；文件名为 cacheName.offheap，重启后恢复的记录与 Redis 比对后才使用 */
+    private String offHeapDirectory;
+
+    /** 缓存默认配置 */
+    private CacheSpec defaults = CacheSpec.defaultSpec();
+
+    /** 按缓存名称的配置 */
+    private Map<String, CacheSpec> caches = new LinkedHashMap<String, CacheSpec>();
+
+    /** 缓存值序列化配置 */
+    private Serializer serializer = new Serializer();
+
+    /** 按名称的布隆过滤器配置 */
+    private Map<String, BloomFilterSpec> bloomFilters = new LinkedHashMap<String, BloomFilterSpec>();
+
+    /** 热点 key 探测配置 */
+    private HotKey hotKey = new HotKey();
+
+    /** 启动预热配置 */
+    private Warmup warmup = new Warmup();
+
+    /**
+     * 合并缓存名称的配置与默认配置
+     * @param cacheName 缓存名称
+     * @return 合并后的配置
+     */
+    public CacheSpec resolve(String cacheName) {
+        CacheSpec spec = caches.get(cacheName);
+        CacheSpec base = CacheSpec.defaultSpec().mergeFrom(defaults);
+        return spec != null ? base.mergeFrom(spec) : base;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    public void setInvalidationChannel(String invalidationChannel) {
+        this.invalidationChannel = invalidationChannel;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public boolean isClusterSlotAware() {
+        return clusterSlotAware;
+    }
+
+    public void setClusterSlotAware(boolean clusterSlotAware) {
+        this.clusterSlotAware = clusterSlotAware;
+    }
+
+    public String getOffHeapDirectory() {
+        return offHeapDirectory;
+    }
+
+    public void setOffHeapDirectory(String offHeapDirectory) {
+        this.offHeapDirectory = offHeapDirectory;
+    }
+
+    public CacheSpec getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(CacheSpec defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, CacheSpec> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, CacheSpec> caches) {
+        this.caches = caches;
+    }
+
+    public Serializer getSerializer() {
+        return serializer;
+    }
+
+    public void setSerializer(Serializer serializer) {
+        this.serializer = serializer;
+    }
+
+    public Map<String, BloomFilterSpec> getBloomFilters() {
+        return bloomFilters;
+    }
+
+    public void setBloomFilters(Map<String, BloomFilterSpec> bloomFilters) {
+        this.bloomFilters = bloomFilters;
+    }
+
+    public HotKey getHotKey() {
+        return hotKey;
+    }
+
+    public void setHotKey(HotKey hotKey) {
+        this.hotKey = hotKey;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Warmup warmup) {
+        this.warmup = warmup;
+    }
+
+    /**
+     * 启动预热配置
+     */
+    public static class Warmup {
+
+        private boolean enabled;
+
+        /** 同时执行的预热批次上限，即同时访问 Redis / 数据库的并发数 */
+        private int parallelism = 8;
+
+        /** 每批 key 数 */
+        private int batchSize = 200;
+
+        /** 预热最长等待时间，超时后不再等待，应用照常就绪 */
+        private Duration timeout = Duration.ofMinutes(2);
+
+        /** 只从 Redis 预热到 L1 的固定 key，按缓存名称配置 */
+        private Map<String, List<String>> keys = new LinkedHashMap<String, List<String>>();
+
+        /** L1 快照文件，为空时不读写快照；多实例部署时应位于实例独占的目录 */
+        private String snapshotFile;
+
+        /** 快照最大年龄，超过时启动不再读取 */
+        private Duration snapshotMaxAge = Duration.ofMinutes(10);
+
+        /** 每个缓存写入快照的最大条数 */
+        private int snapshotMaxEntries = 100000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Map<String, List<String>> getKeys() {
+            return keys;
+        }
+
+        public void setKeys(Map<String, List<String>> keys) {
+            this.keys = keys;
+        }
+
+        public String getSnapshotFile() {
+            return snapshotFile;
+        }
+
+        public void setSnapshotFile(String snapshotFile) {
+            this.snapshotFile = snapshotFile;
+        }
+
+        public Duration getSnapshotMaxAge() {
+            return snapshotMaxAge;
+        }
+
+        public void setSnapshotMaxAge(Duration snapshotMaxAge) {
+            this.snapshotMaxAge = snapshotMaxAge;
+        }
+
+        public int getSnapshotMaxEntries() {
+            return snapshotMaxEntries;
+        }
+
+        public void setSnapshotMaxEntries(int snapshotMaxEntries) {
+            this.snapshotMaxEntries = snapshotMaxEntries;
+        }
+    }
+
+    /**
+     * 热点 key 探测配置
+     */
+    public static class HotKey {
+
+        private boolean enabled;
+
+        /** L2 读取与本地命中的采样率 */
+        private double sampleRate = 0.1D;
+
+        /** 提升为热点的估算访问次数，约为单个节点每个窗口内的访问次数 */
+        private long threshold = 5000L;
+
+        /** 计数衰减窗口，每个窗口结束时计数减半 */
+        private Duration window = Duration.ofSeconds(10);
+
+        /** 热点保持时长，期间未被再次探测到时降级 */
+        private Duration hotTtl = Duration.ofSeconds(30);
+
+        /** 热点本地缓存过期时间，决定热点值的最大陈旧时长 */
+        private Duration localTtl = Duration.ofSeconds(2);
+
+        /** 同时存在的最大热点数，同时也是每个缓存热点本地缓存的容量 */
+        private int maxHotKeys = 500;
+
+        /** Count-Min Sketch 每行计数器个数 */
+        private int sketchWidth = 16384;
+
+        /** Count-Min Sketch 行数 */
+        private int sketchDepth = 4;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public long getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(long threshold) {
+            this.threshold = threshold;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public Duration getHotTtl() {
+            return hotTtl;
+        }
+
+        public void setHotTtl(Duration hotTtl) {
+            this.hotTtl = hotTtl;
+        }
+
+        public Duration getLocalTtl() {
+            return localTtl;
+        }
+
+        public void setLocalTtl(Duration localTtl) {
+            this.localTtl = localTtl;
+        }
+
+        public int getMaxHotKeys() {
+            return maxHotKeys;
+        }
+
+        public void setMaxHotKeys(int maxHotKeys) {
+            this.maxHotKeys = maxHotKeys;
+        }
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public int getSketchDepth() {
+            return sketchDepth;
+        }
+
+        public void setSketchDepth(int sketchDepth) {
+            this.sketchDepth = sketchDepth;
+        }
+    }
+
+    /**
+     * 布隆过滤器存储方式
+     */
+    public enum BloomFilterType {
+        /** 进程内位图，各节点各自构建 */
+        LOCAL,
+        /** Redis 位图，各节点共享 */
+        REDIS
+    }
+
+    /**
+     * 单个布隆过滤器的配置
+     * 位数组大小与哈希函数个数由预期元素数与误判率计算：m = -n·ln(p) / (ln2)²，k = m/n·ln2
+     */
+    public static class BloomFilterSpec {
+
+        private BloomFilterType type = BloomFilterType.LOCAL;
+
+        /** 预期元素数 */
+        private long expectedInsertions = 1000000L;
+
+        /** 预期误判率 */
+        private double fpp = 0.01D;
+
+        public BloomFilterType getType() {
+            return type;
+        }
+
+        public void setType(BloomFilterType type) {
+            this.type = type;
+        }
+
+        public long getExpectedInsertions() {
+            return expectedInsertions;
+        }
+
+        public void setExpectedInsertions(long expectedInsertions) {
+            this.expectedInsertions = expectedInsertions;
+        }
+
+        public double getFpp() {
+            return fpp;
+        }
+
+        public void setFpp(double fpp) {
+            this.fpp = fpp;
+        }
+    }
+
+    /**
+     * 缓存值序列化方式
+     */
+    public enum SerializerType {
+        /** NikoBinaryRedisSerializer */
+        BINARY,
+        /** JDK 序列化 */
+        JDK
+    }
+
+    /**
+     * 缓存值序列化配置
+     */
+    public static class Serializer {
+
+        private SerializerType type = SerializerType.BINARY;
+
+        /** 超过该字节数时压缩，小于0不压缩 */
+        private int compressionThreshold = 1024;
+
+        /** 注册类，按顺序分配编号，各节点须保持一致 */
+        private List<Class<?>> registeredClasses = new ArrayList<Class<?>>();
+
+        public SerializerType getType() {
+            return type;
+        }
+
+        public void setType(SerializerType type) {
+            this.type = type;
+        }
+
+        public int getCompressionThreshold() {
+            return compressionThreshold;
+        }
+
+        public void setCompressionThreshold(int compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+        }
+
+        public List<Class<?>> getRegisteredClasses() {
+            return registeredClasses;
+        }
+
+        public void setRegisteredClasses(List<Class<?>> registeredClasses) {
+            this.registeredClasses = registeredClasses;
+        }
+    }
+
+    /**
+     * 单个缓存的配置
+     */
+    public static class CacheSpec {
+
+        /** L2（Redis）过期时间，0 表示不过期 */
+        private Duration ttl;
+
+        /** 是否启用 L1（进程内） */
+        private Boolean l1Enabled;
+
+        /** L1 最大条数，超出后按 W-TinyLFU 淘汰 */
+        private Long l1MaxSize;
+
+        /** L1 过期时间，兜底跨节点失效通知丢失的情况 */
+        private Duration l1Ttl;
+
+        /** 是否缓存 null 值 */
+        private Boolean cacheNullValues;
+
+        /** 跨节点加载租约时长，0 表示不启用；启用后同一 key 同时只有一个节点回源，其他节点等待结果 */
+        private Duration leaseTime;
+
+        /** 提前刷新（XFetch）系数，0 表示不启用；越大越早刷新，通常取 1.0 */
+        private Double earlyRefreshBeta;
+
+        /** 堆外缓存容量，0 表示不启用；启用后 L1 未命中时先查堆外缓存，再查 Redis */
+        private DataSize offHeapCapacity;
+
+        /** 堆外缓存段数，每段一把锁 */
+        private Integer offHeapSegments;
+
+        /** 堆外缓存过期时间，兜底跨节点失效通知丢失的情况，0 表示只随 L2 过期 */
+        private Duration offHeapTtl;
+
+        /**
+         * 内置默认配置
+         * @return CacheSpec
+         */
+        static CacheSpec defaultSpec() {
+            CacheSpec spec = new CacheSpec();
+            spec.ttl = Duration.ofMinutes(30);
+            spec.l1Enabled = true;
+            spec.l1MaxSize = 10000L;
+            spec.l1Ttl = Duration.ofSeconds(60);
+            spec.cacheNullValues = true;
+            spec.leaseTime = Duration.ZERO;
+            spec.earlyRefreshBeta = 0D;
+            spec.offHeapCapacity = DataSize.ofBytes(0);
+            spec.offHeapSegments = 16;
+            spec.offHeapTtl = Duration.ofMinutes(30);
+            return spec;
+        }
+
+        /**
+         * 以 other 中已配置的项覆盖当前配置，返回新对象
+         * @param other 配置
+         * @return CacheSpec
+         */
+        CacheSpec mergeFrom(CacheSpec other) {
+            CacheSpec merged = new CacheSpec();
+            merged.ttl = other.ttl != null ? other.ttl : ttl;
+            merged.l1Enabled = other.l1Enabled != null ? other.l1Enabled : l1Enabled;
+            merged.l1MaxSize = other.l1MaxSize != null ? other.l1MaxSize : l1MaxSize;
+            merged.l1Ttl = other.l1Ttl != null ? other.l1Ttl : l1Ttl;
+            merged.cacheNullValues = other.cacheNullValues != null ? other.cacheNullValues : cacheNullValues;
+            merged.leaseTime = other.leaseTime != null ? other.leaseTime : leaseTime;
+            merged.earlyRefreshBeta = other.earlyRefreshBeta != null ? other.earlyRefreshBeta : earlyRefreshBeta;
+            merged.offHeapCapacity = other.offHeapCapacity != null ? other.offHeapCapacity : offHeapCapacity;
+            merged.offHeapSegments = other.offHeapSegments != null ? other.offHeapSegments : offHeapSegments;
+            merged.offHeapTtl = other.offHeapTtl != null ? other.offHeapTtl : offHeapTtl;
+            return merged;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Boolean getL1Enabled() {
+            return l1Enabled;
+        }
+
+        public void setL1Enabled(Boolean l1Enabled) {
+            this.l1Enabled = l1Enabled;
+        }
+
+        public Long getL1MaxSize() {
+            return l1MaxSize;
+        }
+
+        public void setL1MaxSize(Long l1MaxSize) {
+            this.l1MaxSize = l1MaxSize;
+        }
+
+        public Duration getL1Ttl() {
+            return l1Ttl;
+        }
+
+        public void setL1Ttl(Duration l1Ttl) {
+            this.l1Ttl = l1Ttl;
+        }
+
+        public Boolean getCacheNullValues() {
+            return cacheNullValues;
+        }
+
+        public void setCacheNullValues(Boolean cacheNullValues) {
+            this.cacheNullValues = cacheNullValues;
+        }
+
+        public Duration getLeaseTime() {
+            return leaseTime;
+        }
+
+        public void setLeaseTime(Duration leaseTime) {
+            this.leaseTime = leaseTime;
+        }
+
+        public Double getEarlyRefreshBeta() {
+            return earlyRefreshBeta;
+        }
+
+        public void setEarlyRefreshBeta(Double earlyRefreshBeta) {
+            this.earlyRefreshBeta = earlyRefreshBeta;
+        }
+
+        public DataSize getOffHeapCapacity() {
+            return offHeapCapacity;
+        }
+
+        public void setOffHeapCapacity(DataSize offHeapCapacity) {
+            this.offHeapCapacity = offHeapCapacity;
+        }
+
+        public Integer getOffHeapSegments() {
+            return offHeapSegments;
+        }
+
+        public void setOffHeapSegments(Integer offHeapSegments) {
+            this.offHeapSegments = offHeapSegments;
+        }
+
+        public Duration getOffHeapTtl() {
+            return offHeapTtl;
+        }
+
+        public void setOffHeapTtl(Duration offHeapTtl) {
+            this.offHeapTtl = offHeapTtl;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.niko.boot.cache.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 两级缓存注解
+ * 方法返回值写入 niko 两级缓存，key 支持 SpEL 模板，每个方法只编译一次
+ *
+ * <p><b>key 表达式支持：</b></p>
+ * <ul>
+ *   <li><b>普通字符串：</b>{@code "config"} - 直接使用固定字符串</li>
+ *   <li><b>参数引用：</b>{@code "#{#id}"} - 读取方法参数 id 的值</li>
+ *   <li><b>混合表达式：</b>{@code "order:#{#orderId}"} - 字符串拼接参数值</li>
+ *   <li><b>嵌套属性：</b>{@code "#{#order.id}"} - 读取对象属性的值</li>
+ *   <li><b>参数索引：</b>{@code "#{#p0}"} 或 {@code "#{#a0}"} - 使用参数索引访问</li>
+ *   <li><b>留空：</b>按全部参数生成 key（同 Spring SimpleKeyGenerator）</li>
+ * </ul>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * // 使用缓存默认 TTL
+ * @NikoCacheable(cacheName = "order", key = "order:#{#id}")
+ * public Order getOrder(Long id) { }
+ *
+ * // 10 分钟 TTL，叠加 0~10% 随机抖动，null 结果缓存 30 秒防穿透
+ * @NikoCacheable(cacheName = "user", key = "user:#{#user.id}", ttl = 600, timeUnit = TimeUnit.SECONDS,
+ *         jitter = 0.1, cacheNull = true, nullTtl = 30)
+ * public UserInfo getUserInfo(User user) { }
+ *
+ * // 先查布隆过滤器 order，一定不存在的 id 直接返回 null，不访问缓存与数据源
+ * @NikoCacheable(cacheName = "order", key = "order:#{#id}", bloomFilter = "order", bloomKey = "#{#id}")
+ * public Order getOrder(Long id) { }
+ * }</pre>
+ */
+@Target({ ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface NikoCacheable {
+
+    /**
+     * 缓存名称，对应 niko.cache.caches 下的配置
+     *
+     * @return 缓存名称
+     */
+    String cacheName();
+
+    /**
+     * 缓存key
+     * <p>支持 SpEL 表达式语法，如 {@code "order:#{#orderId}"}；为空时按全部参数生成</p>
+     *
+     * @return 缓存 key，支持 SpEL 表达式
+     */
+    String key() default "";
+
+    /**
+     * 过期时间，小于 0 时使用缓存配置的 ttl，等于 0 时不过期
+     *
+     * @return
+     */
+    long ttl() default -1;
+
+    /**
+     * 过期时间随机抖动比例，取值 0~1
+     * 实际过期时间为 ttl * (1 + random(0, jitter))，避免同批写入的 key 同时过期造成雪崩
+     *
+     * @return
+     */
+    double jitter() default 0;
+
+    /**
+     * 是否缓存 null 结果，防止不存在的 key 反复穿透到数据源
+     *
+     * @return
+     */
+    boolean cacheNull() default false;
+
+    /**
+     * null 结果的过期时间，小于 0 时与 ttl 相同
+     * 该字段只有当 cacheNull 为 true 时有效
+     *
+     * @return
+     */
+    long nullTtl() default -1;
+
+    /**
+     * 时间格式 默认：秒
+     *
+     * @return
+     */
+    TimeUnit timeUnit() default TimeUnit.SECONDS;
+
+    /**
+     * 是否单飞加载
+     * 为 true 时同一 key 的并发未命中只回源一次（本节点合并 + Redis 租约），并支持提前刷新
+     *
+     * @return
+     */
+    boolean sync() default true;
+
+    /**
+     * 布隆过滤器名称，对应 niko.cache.bloom-filters 下的配置
+     * 过滤器判定一定不存在时直接返回 null
+     *
+     * @return
+     */
+    String bloomFilter() default "";
+
+    /**
+     * 布隆过滤器 key，支持 SpEL 表达式，为空时使用缓存 key
+     * 须与写入过滤器时的元素形式一致
+     *
+     * @return
+     */
+    String bloomKey() default "";
+}
@@ -0,0 +1,114 @@
+package com.niko.boot.cache.aspect;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.niko.boot.cache.annotation.NikoCacheable;
+import com.niko.boot.cache.bloom.BloomFilterRegistry;
+import com.niko.boot.cache.support.NikoTwoLevelCache;
+import com.niko.boot.cache.support.NikoTwoLevelCacheManager;
+import com.niko.boot.cache.util.CacheKeyExpressionParser;
+
+/**
+ * 两级缓存切面
+ * 解析 NikoCacheable 的 key 模板，按注解的 TTL、抖动与 null 值策略读写 NikoTwoLevelCache
+ * 配置了布隆过滤器时先行判定，一定不存在的 key 不访问缓存与数据源
+ */
+@Component
+@Aspect
+@Order(2)
+@ConditionalOnProperty(prefix = "niko.cache", name = "enabled", havingValue = "true")
+public class NikoCacheableAspect {
+
+    @Autowired
+    private NikoTwoLevelCacheManager cacheManager;
+
+    @Autowired(required = false)
+    private BloomFilterRegistry bloomFilterRegistry;
+
+    @Pointcut("@annotation(com.niko.boot.cache.annotation.NikoCacheable)")
+    private void cacheablePoint() {
+    }
+
+    @Around("cacheablePoint()")
+    public Object around(ProceedingJoinPoint pjp) throws Throwable {
+        MethodSignature signature = (MethodSignature) pjp.getSignature();
+        Method method = signature.getMethod();
+        NikoCacheable cacheable = method.getAnnotation(NikoCacheable.class);
+        NikoTwoLevelCache cache = cacheManager.getCache(cacheable.cacheName());
+        Object key = CacheKeyExpressionParser.generateKey(cacheable.key(), method, pjp.getArgs());
+        if (!cacheable.bloomFilter().isEmpty() && bloomFilterRegistry != null) {
+            Object bloomKey = cacheable.bloomKey().isEmpty() ? key : CacheKeyExpressionParser.generateKey(cacheable.bloomKey(), method, pjp.getArgs());
+            if (!bloomFilterRegistry.mightContain(cacheable.bloomFilter(), bloomKey)) {
+                return null;
+            }
+        }
+        Duration ttl = resolveTtl(cacheable);
+        Duration nullTtl = resolveNullTtl(cacheable, ttl);
+        boolean cacheNull = cacheable.cacheNull();
+
+        if (cacheable.sync()) {
+            try {
+                return cache.get(key, () -> {
+                    try {
+                        return pjp.proceed();
+                    } catch (Exception | Error e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, ttl, cacheNull, nullTtl);
+            } catch (Cache.ValueRetrievalException e) {
+                throw e.getCause() != null ? e.getCause() : e;
+            }
+        }
+
+        Cache.ValueWrapper wrapper = cache.get(key);
+        if (wrapper != null) {
+            return wrapper.get();
+        }
+        Object value = pjp.proceed();
+        if (value != null) {
+            cache.put(key, value, ttl);
+        } else if (cacheNull) {
+            cache.putNull(key, nullTtl);
+        }
+        return value;
+    }
+
+    /**
+     * 注解 TTL 叠加随机抖动，未指定时返回 null 由缓存配置决定
+     */
+    private Duration resolveTtl(NikoCacheable cacheable) {
+        if (cacheable.ttl() < 0) {
+            return null;
+        }
+        long millis = cacheable.timeUnit().toMillis(cacheable.ttl());
+        if (millis > 0 && cacheable.jitter() > 0) {
+            millis += (long) (millis * ThreadLocalRandom.current().nextDouble(Math.min(cacheable.jitter(), 1D)));
+        }
+        return Duration.ofMillis(millis);
+    }
+
+    /**
+     * 未指定 nullTtl 时与 ttl 相同，ttl 也未指定时返回 null 由缓存配置决定
+     */
+    private Duration resolveNullTtl(NikoCacheable cacheable, Duration ttl) {
+        if (cacheable.nullTtl() < 0) {
+            return ttl;
+        }
+        return Duration.ofMillis(cacheable.timeUnit().toMillis(cacheable.nullTtl()));
+    }
+}
@@ -0,0 +1,91 @@
+package com.niko.boot.cache.bloom;
+
+import java.util.Collection;
+
+/**
+ * 布隆过滤器
+ * mightContain 返回 false 时元素一定不存在，返回 true 时元素可能存在（存在误判）
+ * 元素按 String.valueOf 转换后参与哈希，写入与查询须使用同一种 key 形式
+ */
+public interface BloomFilter {
+
+    /**
+     * 过滤器名称
+     * @return 名称
+     */
+    String getName();
+
+    /**
+     * 元素是否可能存在
+     * @param key 元素
+     * @return false 表示一定不存在
+     */
+    boolean mightContain(Object key);
+
+    /**
+     * 写入元素
+     * @param key 元素
+     * @return 有位被置为 1 时返回 true（元素此前一定不存在）
+     */
+    boolean put(Object key);
+
+    /**
+     * 批量写入元素
+     * @param keys 元素
+     */
+    default void putAll(Collection<?> keys) {
+        for (Object key : keys) {
+            put(key);
+        }
+    }
+
+    /**
+     * 预期元素数
+     * @return expectedInsertions
+     */
+    long getExpectedInsertions();
+
+    /**
+     * 预期误判率
+     * @return fpp
+     */
+    double getFpp();
+
+    /**
+     * 位数组大小
+     * @return 位数
+     */
+    long getBitSize();
+
+    /**
+     * 哈希函数个数
+     * @return k
+     */
+    int getNumHashFunctions();
+
+    /**
+     * 已置为 1 的位数
+     * @return 位数
+     */
+    long getBitCount();
+
+    /**
+     * 按当前填充率估算的误判率：(bitCount / bitSize) ^ k
+     * @return 当前误判率
+     */
+    default double getCurrentFpp() {
+        return Math.pow((double) getBitCount() / getBitSize(), getNumHashFunctions());
+    }
+
+    /**
+     * 按当前填充率估算的元素数：-m/k · ln(1 - bitCount/m)
+     * @return 估算元素数
+     */
+    default long getApproximateElementCount() {
+        double fraction = (double) getBitCount() / getBitSize();
+        if (fraction >= 1D) {
+            return Long.MAX_VALUE;
+        }
+        return Math.round(-Math.log1p(-fraction) * getBitSize() / getNumHashFunctions());
+    }
+}
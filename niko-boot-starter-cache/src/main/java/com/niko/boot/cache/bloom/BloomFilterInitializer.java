@@ -0,0 +1,45 @@
+package com.niko.boot.cache.bloom;
+
+/**
+ * 布隆过滤器初始化
+ * 注册为 Spring Bean 后，应用启动时在后台虚拟线程中为对应过滤器执行一次全量写入；写入完成前过滤器不拦截任何请求
+ * REDIS 类型的过滤器位图已存在时不再重复写入（由首个启动的节点构建）
+ *
+ * <p>使用示例（DAO 游标扫描全部主键）：</p>
+ * <pre>{@code
+ * @Component
+ * public class OrderBloomFilterInitializer implements BloomFilterInitializer {
+ *
+ *     @Autowired
+ *     private OrderDao orderDao;
+ *
+ *     public String getFilterName() {
+ *         return "order";
+ *     }
+ *
+ *     public void initialize(BloomFilter filter) {
+ *         orderDao.<Long, Void>stream("queryIds", null, 1000, ids -> {
+ *             ids.forEach(filter::put);
+ *             return null;
+ *         });
+ *     }
+ * }
+ * }</pre>
+ * 数据量大时建议分批调用 putAll，REDIS 类型每批只需一次管道往返
+ * 新增数据时调用 BloomFilterRegistry.put(name, key) 增量写入
+ */
+public interface BloomFilterInitializer {
+
+    /**
+     * 过滤器名称，对应 niko.cache.bloom-filters 下的配置
+     * @return 名称
+     */
+    String getFilterName();
+
+    /**
+     * 全量写入
+     * @param filter 过滤器
+     * @throws Exception 写入失败
+     */
+    void initialize(BloomFilter filter) throws Exception;
+}
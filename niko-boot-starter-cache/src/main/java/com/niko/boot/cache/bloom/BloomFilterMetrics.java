@@ -0,0 +1,40 @@
+package com.niko.boot.cache.bloom;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 布隆过滤器指标
+ * 位数、内存、配置与当前估算的误判率、估算元素数，以及拦截/放行次数
+ */
+public class BloomFilterMetrics implements MeterBinder {
+
+    private final BloomFilterRegistry registry;
+
+    public BloomFilterMetrics(BloomFilterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        for (BloomFilter filter : registry.getFilters()) {
+            String name = filter.getName();
+            Gauge.builder("niko.cache.bloom.bits", registry, r -> r.get(name).getBitSize())
+                    .tag("filter", name).register(meterRegistry);
+            Gauge.builder("niko.cache.bloom.memory", registry, r -> r.get(name).getBitSize() / 8D)
+                    .tag("filter", name).baseUnit("bytes").register(meterRegistry);
+            Gauge.builder("niko.cache.bloom.fpp", registry, r -> r.get(name).getFpp())
+                    .tag("filter", name).tag("type", "configured").register(meterRegistry);
+            Gauge.builder("niko.cache.bloom.fpp", registry, r -> r.get(name).getCurrentFpp())
+                    .tag("filter", name).tag("type", "current").register(meterRegistry);
+            Gauge.builder("niko.cache.bloom.elements", registry, r -> r.get(name).getApproximateElementCount())
+                    .tag("filter", name).register(meterRegistry);
+            FunctionCounter.builder("niko.cache.bloom.checks", registry, r -> r.getRejectedCount(name))
+                    .tag("filter", name).tag("result", "rejected").register(meterRegistry);
+            FunctionCounter.builder("niko.cache.bloom.checks", registry, r -> r.getPassedCount(name))
+                    .tag("filter", name).tag("result", "passed").register(meterRegistry);
+        }
+    }
+}
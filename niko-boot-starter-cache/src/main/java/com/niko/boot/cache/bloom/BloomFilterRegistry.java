@@ -0,0 +1,251 @@
+package com.niko.boot.cache.bloom;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.niko.boot.cache.NikoCacheProperties;
+import com.niko.boot.cache.NikoCacheProperties.BloomFilterSpec;
+import com.niko.boot.cache.NikoCacheProperties.BloomFilterType;
+import com.niko.boot.cache.support.CacheInvalidationBus;
+
+/**
+ * 布隆过滤器注册表
+ * 按 niko.cache.bloom-filters 创建过滤器，启动后在后台执行 BloomFilterInitializer；
+ * 缓存与数据源查询前调用 mightContain，返回 false 时直接按不存在处理
+ * 未配置、尚未初始化完成的过滤器一律放行
+ * 进程内过滤器的增量写入通过 CacheInvalidationBus 广播到其他节点；重建期间增量写入同时写入新旧两个过滤器，
+ * Redis 过滤器的重建开始/结束同样广播，使其他节点在重建期间也写入新位图
+ */
+public class BloomFilterRegistry implements SmartInitializingSingleton {
+
+    private final static Logger logger = LoggerFactory.getLogger(BloomFilterRegistry.class);
+
+    private static final String REBUILD_SUFFIX = ":rebuilding";
+
+    private final NikoCacheProperties properties;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final List<BloomFilterInitializer> initializers;
+    private final Map<String, BloomFilter> filters = new ConcurrentHashMap<String, BloomFilter>();
+    private final Map<String, BloomFilter> rebuilding = new ConcurrentHashMap<String, BloomFilter>();
+    private final Set<String> ready = ConcurrentHashMap.newKeySet();
+    private final Map<String, LongAdder> rejected = new ConcurrentHashMap<String, LongAdder>();
+    private final Map<String, LongAdder> passed = new ConcurrentHashMap<String, LongAdder>();
+
+    public BloomFilterRegistry(NikoCacheProperties properties, RedisTemplate<String, Object> redisTemplate, CacheInvalidationBus invalidationBus,
+            List<BloomFilterInitializer> initializers) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.invalidationBus = invalidationBus;
+        this.initializers = initializers;
+        for (Map.Entry<String, BloomFilterSpec> entry : properties.getBloomFilters().entrySet()) {
+            filters.put(entry.getKey(), create(entry.getKey(), entry.getValue(), redisKey(entry.getKey())));
+            rejected.put(entry.getKey(), new LongAdder());
+            passed.put(entry.getKey(), new LongAdder());
+        }
+        invalidationBus.setBloomPutHandler(this::putLocal);
+        invalidationBus.setBloomRebuildHandler(this::onRemoteRebuild);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Set<String> initialized = ConcurrentHashMap.newKeySet();
+        for (BloomFilterInitializer initializer : initializers) {
+            String name = initializer.getFilterName();
+            BloomFilter filter = filters.get(name);
+            if (filter == null) {
+                logger.warn("布隆过滤器 [{}] 未配置，忽略初始化器 {}", name, initializer.getClass().getName());
+                continue;
+            }
+            initialized.add(name);
+            if (filter instanceof RedisBloomFilter && Boolean.TRUE.equals(redisTemplate.hasKey(((RedisBloomFilter) filter).getRedisKey()))) {
+                ready.add(name);
+                continue;
+            }
+            Thread.ofVirtual().name("niko-bloom-init-" + name).start(() -> initialize(name, filter, initializer));
+        }
+        // 无初始化器的过滤器只做增量写入，创建后即生效
+        for (String name : filters.keySet()) {
+            if (!initialized.contains(name)) {
+                ready.add(name);
+            }
+        }
+    }
+
+    /**
+     * 获取过滤器
+     * @param name 名称
+     * @return 过滤器，未配置时为null
+     */
+    public BloomFilter get(String name) {
+        return filters.get(name);
+    }
+
+    /**
+     * 全部过滤器
+     * @return 过滤器
+     */
+    public Collection<BloomFilter> getFilters() {
+        return filters.values();
+    }
+
+    /**
+     * 元素是否可能存在
+     * @param name 过滤器名称
+     * @param key 元素
+     * @return false 表示一定不存在
+     */
+    public boolean mightContain(String name, Object key) {
+        BloomFilter filter = filters.get(name);
+        if (filter == null || !ready.contains(name)) {
+            return true;
+        }
+        if (filter.mightContain(key)) {
+            passed.get(name).increment();
+            return true;
+        }
+        rejected.get(name).increment();
+        return false;
+    }
+
+    /**
+     * 增量写入，新增数据后调用；进程内过滤器同时广播到其他节点
+     * @param name 过滤器名称
+     * @param key 元素
+     */
+    public void put(String name, Object key) {
+        BloomFilter filter = filters.get(name);
+        if (filter == null) {
+            return;
+        }
+        putLocal(name, key);
+        if (filter instanceof LocalBloomFilter) {
+            invalidationBus.publishBloomPut(name, String.valueOf(key));
+        }
+    }
+
+    /**
+     * 重建过滤器：写入新的位图后替换，期间旧过滤器继续生效，增量写入同时写入新旧过滤器；用于删除大量数据或元素数超出预期后
+     * 进程内过滤器只重建本节点
+     * @param name 过滤器名称
+     */
+    public void rebuild(String name) {
+        BloomFilterSpec spec = properties.getBloomFilters().get(name);
+        BloomFilterInitializer initializer = findInitializer(name);
+        if (spec == null || initializer == null) {
+            throw new IllegalArgumentException("布隆过滤器 [" + name + "] 未配置或没有初始化器");
+        }
+        String redisKey = redisKey(name);
+        BloomFilter rebuilt = create(name, spec, redisKey + REBUILD_SUFFIX);
+        boolean shared = rebuilt instanceof RedisBloomFilter;
+        if (shared) {
+            redisTemplate.delete(redisKey + REBUILD_SUFFIX);
+        }
+        // 先登记再初始化：此后的增量写入同时进入新位图，初始化器扫描不到的新数据不会丢失
+        rebuilding.put(name, rebuilt);
+        if (shared) {
+            invalidationBus.publishBloomRebuild(name, true);
+        }
+        try {
+            initializer.initialize(rebuilt);
+            if (shared) {
+                redisTemplate.rename(redisKey + REBUILD_SUFFIX, redisKey);
+                rebuilt = create(name, spec, redisKey);
+            }
+            // 先替换再注销，put 先读 rebuilding 再读 filters，任一时刻至少写入到新过滤器
+            filters.put(name, rebuilt);
+            ready.add(name);
+        } catch (Exception e) {
+            throw new IllegalStateException("布隆过滤器 [" + name + "] 重建失败", e);
+        } finally {
+            rebuilding.remove(name);
+            if (shared) {
+                invalidationBus.publishBloomRebuild(name, false);
+            }
+        }
+    }
+
+    /**
+     * 被拦截次数
+     * @param name 过滤器名称
+     * @return 次数
+     */
+    public long getRejectedCount(String name) {
+        LongAdder adder = rejected.get(name);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    /**
+     * 放行次数
+     * @param name 过滤器名称
+     * @return 次数
+     */
+    public long getPassedCount(String name) {
+        LongAdder adder = passed.get(name);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    private void initialize(String name, BloomFilter filter, BloomFilterInitializer initializer) {
+        long start = System.currentTimeMillis();
+        try {
+            initializer.initialize(filter);
+            ready.add(name);
+            logger.info("布隆过滤器 [{}] 初始化完成，耗时 {} ms，估算元素数 {}", name, System.currentTimeMillis() - start,
+                    filter.getApproximateElementCount());
+        } catch (Exception e) {
+            logger.error("布隆过滤器 [{}] 初始化失败，过滤器不生效", name, e);
+        }
+    }
+
+    private void putLocal(String name, Object key) {
+        BloomFilter next = rebuilding.get(name);
+        BloomFilter filter = filters.get(name);
+        if (filter != null) {
+            filter.put(key);
+        }
+        if (next != null && next != filter) {
+            next.put(key);
+        }
+    }
+
+    private void onRemoteRebuild(String name, Boolean started) {
+        BloomFilterSpec spec = properties.getBloomFilters().get(name);
+        if (spec == null || spec.getType() != BloomFilterType.REDIS) {
+            return;
+        }
+        if (started) {
+            rebuilding.put(name, create(name, spec, redisKey(name) + REBUILD_SUFFIX));
+        } else {
+            rebuilding.remove(name);
+        }
+    }
+
+    private BloomFilterInitializer findInitializer(String name) {
+        for (BloomFilterInitializer initializer : initializers) {
+            if (name.equals(initializer.getFilterName())) {
+                return initializer;
+            }
+        }
+        return null;
+    }
+
+    private BloomFilter create(String name, BloomFilterSpec spec, String redisKey) {
+        if (spec.getType() == BloomFilterType.REDIS) {
+            return new RedisBloomFilter(name, redisKey, spec.getExpectedInsertions(), spec.getFpp(), redisTemplate);
+        }
+        return new LocalBloomFilter(name, spec.getExpectedInsertions(), spec.getFpp());
+    }
+
+    private String redisKey(String name) {
+        return properties.getKeyPrefix() + "bloom:" + name;
+    }
+}
@@ -0,0 +1,95 @@
+package com.niko.boot.cache.bloom;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内布隆过滤器
+ * 位数组为 long[]（AtomicLongArray），每个元素 64 位，无装箱、无对象头开销；写入以 CAS 置位，读写均无锁
+ * 1000 万元素、1% 误判率约占 11.4 MB
+ */
+public class LocalBloomFilter implements BloomFilter {
+
+    private final String name;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final long numBits;
+    private final int numHashFunctions;
+    private final AtomicLongArray words;
+    private final LongAdder bitCount = new LongAdder();
+
+    public LocalBloomFilter(String name, long expectedInsertions, double fpp) {
+        this.name = name;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        long bits = BloomFilterHashing.optimalNumOfBits(expectedInsertions, fpp);
+        long wordCount = (bits + 63) >>> 6;
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("布隆过滤器 [" + name + "] 位数过大: " + bits);
+        }
+        this.numBits = wordCount << 6;
+        this.numHashFunctions = BloomFilterHashing.optimalNumOfHashFunctions(expectedInsertions, numBits);
+        this.words = new AtomicLongArray((int) wordCount);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean mightContain(Object key) {
+        for (long index : BloomFilterHashing.bitIndexes(key, numBits, numHashFunctions)) {
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean put(Object key) {
+        boolean changed = false;
+        for (long index : BloomFilterHashing.bitIndexes(key, numBits, numHashFunctions)) {
+            int wordIndex = (int) (index >>> 6);
+            long mask = 1L << index;
+            long word;
+            do {
+                word = words.get(wordIndex);
+                if ((word & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(wordIndex, word, word | mask));
+            if ((word & mask) == 0) {
+                bitCount.increment();
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    @Override
+    public double getFpp() {
+        return fpp;
+    }
+
+    @Override
+    public long getBitSize() {
+        return numBits;
+    }
+
+    @Override
+    public int getNumHashFunctions() {
+        return numHashFunctions;
+    }
+
+    @Override
+    public long getBitCount() {
+        return bitCount.sum();
+    }
+}
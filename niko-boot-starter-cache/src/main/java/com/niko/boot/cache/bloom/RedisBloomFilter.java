@@ -0,0 +1,157 @@
+package com.niko.boot.cache.bloom;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Redis 位图布隆过滤器
+ * 各节点共享同一个位图，写入与查询各用一次管道（k 条 SETBIT / GETBIT）
+ * Redis 不可用时 mightContain 返回 true，退化为不过滤
+ */
+public class RedisBloomFilter implements BloomFilter {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisBloomFilter.class);
+
+    /** Redis 字符串最大 512MB，即 2^32 位 */
+    private static final long MAX_BITS = 1L << 32;
+
+    /** BITCOUNT 为 O(N)，结果缓存该时长 */
+    private static final long BIT_COUNT_REFRESH_MILLIS = 60_000L;
+
+    private final String name;
+    private final byte[] redisKey;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final long numBits;
+    private final int numHashFunctions;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private volatile long bitCount;
+    private volatile long bitCountAt;
+
+    public RedisBloomFilter(String name, String redisKey, long expectedInsertions, double fpp, RedisTemplate<String, Object> redisTemplate) {
+        this.name = name;
+        this.redisKey = redisKey.getBytes(StandardCharsets.UTF_8);
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.numBits = BloomFilterHashing.optimalNumOfBits(expectedInsertions, fpp);
+        if (numBits > MAX_BITS) {
+            throw new IllegalArgumentException("布隆过滤器 [" + name + "] 位数超过 Redis 位图上限: " + numBits);
+        }
+        this.numHashFunctions = BloomFilterHashing.optimalNumOfHashFunctions(expectedInsertions, numBits);
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Redis key
+     * @return key
+     */
+    public String getRedisKey() {
+        return new String(redisKey, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean mightContain(Object key) {
+        long[] indexes = BloomFilterHashing.bitIndexes(key, numBits, numHashFunctions);
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                RedisStringCommands commands = connection.stringCommands();
+                for (long index : indexes) {
+                    commands.getBit(redisKey, index);
+                }
+                return null;
+            });
+            for (Object result : results) {
+                if (!Boolean.TRUE.equals(result)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            logger.warn("布隆过滤器读取失败，按可能存在处理，filter: [{}]，错误: {}", name, e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public boolean put(Object key) {
+        long[] indexes = BloomFilterHashing.bitIndexes(key, numBits, numHashFunctions);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            RedisStringCommands commands = connection.stringCommands();
+            for (long index : indexes) {
+                commands.setBit(redisKey, index, true);
+            }
+            return null;
+        });
+        // SETBIT 返回原值
+        for (Object result : results) {
+            if (!Boolean.TRUE.equals(result)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void putAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            RedisStringCommands commands = connection.stringCommands();
+            for (Object key : keys) {
+                for (long index : BloomFilterHashing.bitIndexes(key, numBits, numHashFunctions)) {
+                    commands.setBit(redisKey, index, true);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    @Override
+    public double getFpp() {
+        return fpp;
+    }
+
+    @Override
+    public long getBitSize() {
+        return numBits;
+    }
+
+    @Override
+    public int getNumHashFunctions() {
+        return numHashFunctions;
+    }
+
+    @Override
+    public long getBitCount() {
+        long now = System.currentTimeMillis();
+        if (now - bitCountAt > BIT_COUNT_REFRESH_MILLIS) {
+            try {
+                Long count = redisTemplate.execute((RedisCallback<Long>) connection -> connection.stringCommands().bitCount(redisKey));
+                bitCount = count != null ? count : 0L;
+            } catch (Exception e) {
+                logger.warn("布隆过滤器统计失败，filter: [{}]，错误: {}", name, e.getMessage());
+            }
+            bitCountAt = now;
+        }
+        return bitCount;
+    }
+}
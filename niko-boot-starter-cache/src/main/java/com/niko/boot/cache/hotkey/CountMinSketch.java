@@ -0,0 +1,95 @@
+package com.niko.boot.cache.hotkey;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.niko.boot.cache.bloom.BloomFilterHashing;
+
+/**
+ * Count-Min Sketch
+ * depth 行 × width 列计数器，元素在每行命中一个计数器，估算值取各行最小值（只会高估，不会低估）
+ * 写入采用保守更新：只递增等于当前最小值的计数器，降低哈希冲突带来的高估
+ * decay 将全部计数器减半，使估算值反映最近一段时间的访问频率
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int widthMask;
+    private final AtomicIntegerArray counters;
+
+    /**
+     * @param width 每行计数器个数，向上取整为 2 的幂；误差约为 总次数 × e / width
+     * @param depth 行数；误差超出上界的概率约为 e^-depth
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("width与depth必须大于0");
+        }
+        int size = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.widthMask = size - 1;
+        this.counters = new AtomicIntegerArray(Math.multiplyExact(size, depth));
+    }
+
+    /**
+     * 计数加一
+     * @param key 元素
+     * @return 加一后的估算值
+     */
+    public int increment(String key) {
+        int[] indexes = indexes(key);
+        int min = Integer.MAX_VALUE;
+        for (int index : indexes) {
+            min = Math.min(min, counters.get(index));
+        }
+        if (min == Integer.MAX_VALUE) {
+            return min;
+        }
+        for (int index : indexes) {
+            // 保守更新：只递增等于最小值的计数器
+            int value = counters.get(index);
+            if (value == min) {
+                counters.compareAndSet(index, value, value + 1);
+            }
+        }
+        return min + 1;
+    }
+
+    /**
+     * 估算值
+     * @param key 元素
+     * @return 估算次数
+     */
+    public int estimate(String key) {
+        int min = Integer.MAX_VALUE;
+        for (int index : indexes(key)) {
+            min = Math.min(min, counters.get(index));
+        }
+        return min;
+    }
+
+    /**
+     * 全部计数器减半
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            int value;
+            do {
+                value = counters.get(i);
+            } while (value != 0 && !counters.compareAndSet(i, value, value >>> 1));
+        }
+    }
+
+    private int[] indexes(String key) {
+        long[] hash = BloomFilterHashing.murmur3(key.getBytes(StandardCharsets.UTF_8));
+        long combined = hash[0];
+        int width = widthMask + 1;
+        int[] indexes = new int[depth];
+        for (int i = 0; i < depth; i++) {
+            indexes[i] = i * width + (int) (combined & widthMask);
+            combined += hash[1];
+            combined = Long.rotateLeft(combined, 17);
+        }
+        return indexes;
+    }
+}
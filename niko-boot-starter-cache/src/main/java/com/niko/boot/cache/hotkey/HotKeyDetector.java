@@ -0,0 +1,262 @@
+package com.niko.boot.cache.hotkey;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.niko.boot.cache.NikoCacheProperties;
+import com.niko.boot.cache.support.CacheInvalidationBus;
+
+/**
+ * 热点 key 探测
+ * 按 sampleRate 对 L2 读取与本地命中采样写入 Count-Min Sketch，每个窗口结束时计数减半；
+ * 估算访问次数（按采样率放大）达到 threshold 的 key 提升为热点，通过 CacheInvalidationBus 广播，
+ * 各节点在 hotTtl 内将其缓存于本地热点缓存（localTtl 过期），访问不再落到同一个 Redis 分片
+ * 热点缓存命中不经过 L2，本地命中同样采样，持续访问的热点会不断续期，不会在 hotTtl 后降级再重新提升
+ * 热点在 hotTtl 内未被再次探测到时自动降级
+ */
+public class HotKeyDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotKeyDetector.class);
+
+    private static final char SEPARATOR = '\u001f';
+
+    private final CountMinSketch sketch;
+    private final double sampleRate;
+    private final long threshold;
+    private final long windowMillis;
+    private final Duration hotTtl;
+    private final Duration localTtl;
+    private final int maxHotKeys;
+    private final CacheInvalidationBus invalidationBus;
+    private final AtomicLong lastDecayMillis = new AtomicLong(System.currentTimeMillis());
+    private final Map<String, HotKey> hotKeys = new ConcurrentHashMap<String, HotKey>();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder localPromotions = new LongAdder();
+    private final LongAdder remotePromotions = new LongAdder();
+
+    public HotKeyDetector(NikoCacheProperties.HotKey config, CacheInvalidationBus invalidationBus) {
+        if (config.getSampleRate() <= 0D || config.getSampleRate() > 1D) {
+            throw new IllegalArgumentException("采样率必须介于0与1之间: " + config.getSampleRate());
+        }
+        this.sketch = new CountMinSketch(config.getSketchWidth(), config.getSketchDepth());
+        this.sampleRate = config.getSampleRate();
+        this.threshold = config.getThreshold();
+        this.windowMillis = config.getWindow().toMillis();
+        this.hotTtl = config.getHotTtl();
+        this.localTtl = config.getLocalTtl();
+        this.maxHotKeys = config.getMaxHotKeys();
+        this.invalidationBus = invalidationBus;
+        invalidationBus.setHotKeyHandler(this::onRemoteHot);
+    }
+
+    /**
+     * 记录一次 L2 读取
+     * @param cacheName 缓存名称
+     * @param cacheKey 缓存key
+     * @return 是否为热点
+     */
+    public boolean recordAccess(String cacheName, String cacheKey) {
+        long now = System.currentTimeMillis();
+        decayIfNecessary(now);
+        String id = cacheName + SEPARATOR + cacheKey;
+        HotKey hotKey = liveHotKey(id, now);
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return hotKey != null;
+        }
+        return sample(id, cacheName, cacheKey, hotKey, now);
+    }
+
+    /**
+     * 记录一次本地命中（L1、热点缓存或堆外缓存）
+     * 先按 sampleRate 判断，未采中时直接返回，本地命中路径只多一次随机数
+     * @param cacheName 缓存名称
+     * @param cacheKey 缓存key
+     * @return 本次被采样且为热点时返回 true
+     */
+    public boolean recordLocalHit(String cacheName, String cacheKey) {
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        decayIfNecessary(now);
+        String id = cacheName + SEPARATOR + cacheKey;
+        return sample(id, cacheName, cacheKey, liveHotKey(id, now), now);
+    }
+
+    private HotKey liveHotKey(String id, long now) {
+        HotKey hotKey = hotKeys.get(id);
+        if (hotKey != null && hotKey.expireAtMillis <= now) {
+            hotKeys.remove(id, hotKey);
+            return null;
+        }
+        return hotKey;
+    }
+
+    private boolean sample(String id, String cacheName, String cacheKey, HotKey hotKey, long now) {
+        sampled.increment();
+        long estimate = (long) (sketch.increment(id) / sampleRate);
+        if (estimate < threshold) {
+            return hotKey != null;
+        }
+        if (hotKey != null) {
+            hotKey.estimate = estimate;
+            hotKey.expireAtMillis = now + hotTtl.toMillis();
+            return true;
+        }
+        if (promote(id, cacheName, cacheKey, estimate, true, now)) {
+            invalidationBus.publishHot(cacheName, cacheKey);
+            logger.info("发现热点key，cache: [{}]，key: [{}]，估算访问次数: {}", cacheName, cacheKey, estimate);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 是否为热点
+     * @param cacheName 缓存名称
+     * @param cacheKey 缓存key
+     * @return 是否为热点
+     */
+    public boolean isHot(String cacheName, String cacheKey) {
+        HotKey hotKey = hotKeys.get(cacheName + SEPARATOR + cacheKey);
+        return hotKey != null && hotKey.expireAtMillis > System.currentTimeMillis();
+    }
+
+    /**
+     * 当前热点，按估算访问次数降序
+     * @return 热点列表
+     */
+    public List<HotKey> getHotKeys() {
+        long now = System.currentTimeMillis();
+        List<HotKey> result = new ArrayList<HotKey>();
+        for (HotKey hotKey : hotKeys.values()) {
+            if (hotKey.expireAtMillis > now) {
+                result.add(hotKey);
+            }
+        }
+        result.sort(Comparator.comparingLong(HotKey::getEstimate).reversed());
+        return result;
+    }
+
+    public Duration getLocalTtl() {
+        return localTtl;
+    }
+
+    public int getMaxHotKeys() {
+        return maxHotKeys;
+    }
+
+    public long getSampledCount() {
+        return sampled.sum();
+    }
+
+    public long getLocalPromotionCount() {
+        return localPromotions.sum();
+    }
+
+    public long getRemotePromotionCount() {
+        return remotePromotions.sum();
+    }
+
+    private void onRemoteHot(String cacheName, String cacheKey) {
+        long now = System.currentTimeMillis();
+        String id = cacheName + SEPARATOR + cacheKey;
+        HotKey hotKey = hotKeys.get(id);
+        if (hotKey != null) {
+            hotKey.expireAtMillis = now + hotTtl.toMillis();
+            return;
+        }
+        promote(id, cacheName, cacheKey, -1, false, now);
+    }
+
+    private boolean promote(String id, String cacheName, String cacheKey, long estimate, boolean local, long now) {
+        if (hotKeys.size() >= maxHotKeys) {
+            removeExpired(now);
+            if (hotKeys.size() >= maxHotKeys) {
+                logger.debug("热点key数量已达上限 {}，忽略 cache: [{}]，key: [{}]", maxHotKeys, cacheName, cacheKey);
+                return false;
+            }
+        }
+        if (hotKeys.putIfAbsent(id, new HotKey(cacheName, cacheKey, estimate, local, now, now + hotTtl.toMillis())) != null) {
+            return false;
+        }
+        (local ? localPromotions : remotePromotions).increment();
+        return true;
+    }
+
+    private void decayIfNecessary(long now) {
+        long last = lastDecayMillis.get();
+        if (now - last >= windowMillis && lastDecayMillis.compareAndSet(last, now)) {
+            sketch.decay();
+            removeExpired(now);
+        }
+    }
+
+    private void removeExpired(long now) {
+        hotKeys.values().removeIf(hotKey -> hotKey.expireAtMillis <= now);
+    }
+
+    /**
+     * 热点 key
+     */
+    public static class HotKey {
+
+        private final String cacheName;
+        private final String key;
+        private final boolean local;
+        private final long promotedAtMillis;
+        private volatile long estimate;
+        private volatile long expireAtMillis;
+
+        HotKey(String cacheName, String key, long estimate, boolean local, long promotedAtMillis, long expireAtMillis) {
+            this.cacheName = cacheName;
+            this.key = key;
+            this.estimate = estimate;
+            this.local = local;
+            this.promotedAtMillis = promotedAtMillis;
+            this.expireAtMillis = expireAtMillis;
+        }
+
+        public String getCacheName() {
+            return cacheName;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * 估算访问次数，由其他节点通知提升时为 -1
+         * @return estimate
+         */
+        public long getEstimate() {
+            return estimate;
+        }
+
+        /**
+         * 是否由本节点探测到
+         * @return local
+         */
+        public boolean isLocal() {
+            return local;
+        }
+
+        public long getPromotedAtMillis() {
+            return promotedAtMillis;
+        }
+
+        public long getExpireAtMillis() {
+            return expireAtMillis;
+        }
+    }
+}
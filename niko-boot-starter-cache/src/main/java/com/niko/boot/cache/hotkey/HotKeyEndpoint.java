@@ -0,0 +1,25 @@
+package com.niko.boot.cache.hotkey;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * 热点 key 端点
+ * GET /actuator/hotkeys 返回本节点当前的热点 key，需在 management.endpoints.web.exposure.include 中开放
+ */
+@Endpoint(id = "hotkeys")
+public class HotKeyEndpoint {
+
+    private final HotKeyDetector detector;
+
+    public HotKeyEndpoint(HotKeyDetector detector) {
+        this.detector = detector;
+    }
+
+    @ReadOperation
+    public List<HotKeyDetector.HotKey> hotKeys() {
+        return detector.getHotKeys();
+    }
+}
@@ -0,0 +1,31 @@
+package com.niko.boot.cache.hotkey;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 热点 key 指标
+ * 当前热点数、采样次数与提升次数（本节点探测 / 其他节点通知）
+ */
+public class HotKeyMetrics implements MeterBinder {
+
+    private final HotKeyDetector detector;
+
+    public HotKeyMetrics(HotKeyDetector detector) {
+        this.detector = detector;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("niko.cache.hotkey.count", detector, d -> d.getHotKeys().size())
+                .register(registry);
+        FunctionCounter.builder("niko.cache.hotkey.sampled", detector, HotKeyDetector::getSampledCount)
+                .register(registry);
+        FunctionCounter.builder("niko.cache.hotkey.promotions", detector, HotKeyDetector::getLocalPromotionCount)
+                .tag("source", "local").register(registry);
+        FunctionCounter.builder("niko.cache.hotkey.promotions", detector, HotKeyDetector::getRemotePromotionCount)
+                .tag("source", "remote").register(registry);
+    }
+}
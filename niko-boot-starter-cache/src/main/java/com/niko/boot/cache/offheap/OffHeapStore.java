@@ -0,0 +1,605 @@
+package com.niko.boot.cache.offheap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.niko.boot.cache.bloom.BloomFilterHashing;
+
+/**
+ * 堆外键值存储
+ * 数据按 key 哈希分布到多个段，每段一块 DirectByteBuffer（或文件映射的 MappedByteBuffer）与一把锁；
+ * 段内以环形日志追加记录，索引为开放寻址的 long[]（哈希 + 记录偏移），不持有 key/value 对象，堆占用与条目大小无关
+ *
+ * <p>淘汰：空间不足时从日志尾部回收，最近被读取过（引用位为 1）的存活记录清除引用位后搬到头部再给一次机会，
+ * 其余记录直接淘汰，即环形日志上的 CLOCK 算法</p>
+ *
+ * <p>记录格式：magic(2) flags(1) 保留(1) keyLength(4) valueLength(4) hash(4) expireAt(8) key value</p>
+ * <p>文件映射模式下段首 32 字节保存 head/tail/used，重启时从 tail 扫描到 head 重建索引，过期与已删除的记录跳过；
+ * 停机期间其他节点发布的失效本节点收不到，恢复的记录须由调用方逐个与 Redis 比对后才能使用（见 segmentKeys、peek）</p>
+ *
+ * 直接内存模式受 -XX:MaxDirectMemorySize 限制，容量应在其范围内
+ */
+public class OffHeapStore implements Closeable {
+
+    private static final int HEADER_SIZE = 24;
+    private static final int META_SIZE = 32;
+    private static final short RECORD_MAGIC = 0x4e4b;
+    private static final int SEGMENT_MAGIC = 0x4e4b4f48;
+    private static final int VERSION = 1;
+    private static final byte FLAG_LIVE = 1;
+    private static final byte FLAG_REFERENCED = 2;
+    private static final byte FLAG_SKIP = 4;
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+    private static final int INITIAL_TABLE_SIZE = 1024;
+
+    private final long capacity;
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final FileChannel channel;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity 总容量（字节）
+     * @param segmentCount 段数，向上取整为 2 的幂，并保证每段不超过 1GB
+     * @param file 映射文件，为null时使用直接内存
+     * @throws IOException 文件映射失败
+     */
+    public OffHeapStore(long capacity, int segmentCount, Path file) throws IOException {
+        int count = Math.max(segmentCount, (int) ((capacity + MAX_SEGMENT_SIZE - 1) / MAX_SEGMENT_SIZE));
+        count = count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+        long segmentSize = capacity / count;
+        if (segmentSize <= META_SIZE + HEADER_SIZE * 4) {
+            throw new IllegalArgumentException("堆外缓存容量过小: " + capacity);
+        }
+        this.capacity = segmentSize * count;
+        this.segments = new Segment[count];
+        this.segmentMask = count - 1;
+        if (file != null) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            for (int i = 0; i < count; i++) {
+                segments[i] = new Segment(channel.map(FileChannel.MapMode.READ_WRITE, i * segmentSize, segmentSize), true);
+            }
+        } else {
+            this.channel = null;
+            for (int i = 0; i < count; i++) {
+                segments[i] = new Segment(ByteBuffer.allocateDirect((int) segmentSize), false);
+            }
+        }
+    }
+
+    /**
+     * 读取
+     * @param key key
+     * @return 值，不存在或已过期时为null
+     */
+    public byte[] get(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(keyBytes);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            byte[] value = segment.read((int) hash, keyBytes, System.currentTimeMillis(), true);
+            (value != null ? hits : misses).increment();
+            return value;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 读取但不计入命中统计、不设置引用位，用于启动时比对恢复的记录
+     * @param key key
+     * @return 值，不存在或已过期时为null
+     */
+    public byte[] peek(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(keyBytes);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            return segment.read((int) hash, keyBytes, System.currentTimeMillis(), false);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 写入
+     * @param key key
+     * @param value 值
+     * @param expireAtMillis 过期时间戳，0 表示不过期
+     * @return 记录超过段容量的 1/4 时不写入并返回 false
+     */
+    public boolean put(String key, byte[] value, long expireAtMillis) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(keyBytes);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            return segment.put((int) hash, keyBytes, value, expireAtMillis);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 删除
+     * @param key key
+     */
+    public void remove(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(keyBytes);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            segment.remove((int) hash, keyBytes);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 清空
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.reset();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 段数
+     * @return 段数
+     */
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * 段内全部 key，用于重启后逐段与 Redis 比对；持锁期间只复制 key，不阻塞其他段
+     * @param index 段序号，0 到 getSegmentCount() - 1
+     * @return key
+     */
+    public List<String> segmentKeys(int index) {
+        Segment segment = segments[index];
+        segment.lock.lock();
+        try {
+            return segment.keys();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 条目数（近似值）
+     * @return 条目数
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    /**
+     * 已占用字节数（近似值，含待回收的记录）
+     * @return 字节数
+     */
+    public long getUsedBytes() {
+        long used = 0;
+        for (Segment segment : segments) {
+            used += segment.used;
+        }
+        return used;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                ((MappedByteBuffer) segment.buffer).force();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        channel.close();
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 40) & segmentMask];
+    }
+
+    private static long hash(byte[] keyBytes) {
+        return BloomFilterHashing.murmur3(keyBytes)[0];
+    }
+
+    /**
+     * 段：环形日志 + 开放寻址索引，所有方法在持有 lock 时调用
+     */
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ByteBuffer buffer;
+        private final boolean persistent;
+        /** 数据区大小，偏移相对于 META_SIZE */
+        private final int dataSize;
+        private int head;
+        private int tail;
+        private volatile int used;
+        private volatile int count;
+        /** 高 32 位为哈希，低 32 位为 偏移 + 1；0 表示空槽 */
+        private long[] table = new long[INITIAL_TABLE_SIZE];
+
+        Segment(ByteBuffer buffer, boolean persistent) {
+            this.buffer = buffer;
+            this.persistent = persistent;
+            this.dataSize = buffer.capacity() - META_SIZE;
+            if (persistent && buffer.getInt(0) == SEGMENT_MAGIC && buffer.getInt(4) == VERSION && buffer.getInt(20) == dataSize) {
+                rebuild(buffer.getInt(8), buffer.getInt(12), buffer.getInt(16));
+            } else {
+                reset();
+            }
+        }
+
+        byte[] read(int hash, byte[] keyBytes, long now, boolean touch) {
+            int slot = find(hash, keyBytes);
+            if (slot < 0) {
+                return null;
+            }
+            int position = META_SIZE + offsetOf(table[slot]);
+            long expireAt = buffer.getLong(position + 16);
+            if (expireAt > 0 && expireAt <= now) {
+                buffer.put(position + 2, (byte) 0);
+                removeSlot(slot);
+                return null;
+            }
+            if (touch) {
+                buffer.put(position + 2, (byte) (FLAG_LIVE | FLAG_REFERENCED));
+            }
+            int keyLength = buffer.getInt(position + 4);
+            byte[] value = new byte[buffer.getInt(position + 8)];
+            buffer.get(position + HEADER_SIZE + keyLength, value);
+            return value;
+        }
+
+        boolean put(int hash, byte[] keyBytes, byte[] value, long expireAt) {
+            remove(hash, keyBytes);
+            int length = HEADER_SIZE + keyBytes.length + value.length;
+            if (length > dataSize / 4) {
+                return false;
+            }
+            int offset = allocate(length);
+            int position = META_SIZE + offset;
+            buffer.putShort(position, RECORD_MAGIC);
+            buffer.put(position + 2, FLAG_LIVE);
+            buffer.put(position + 3, (byte) 0);
+            buffer.putInt(position + 4, keyBytes.length);
+            buffer.putInt(position + 8, value.length);
+            buffer.putInt(position + 12, hash);
+            buffer.putLong(position + 16, expireAt);
+            buffer.put(position + HEADER_SIZE, keyBytes);
+            buffer.put(position + HEADER_SIZE + keyBytes.length, value);
+            insert(hash, offset);
+            writeMeta();
+            return true;
+        }
+
+        void remove(int hash, byte[] keyBytes) {
+            int slot = find(hash, keyBytes);
+            if (slot >= 0) {
+                buffer.put(META_SIZE + offsetOf(table[slot]) + 2, (byte) 0);
+                removeSlot(slot);
+            }
+        }
+
+        List<String> keys() {
+            List<String> keys = new ArrayList<String>(count);
+            for (long entry : table) {
+                if (entry != 0) {
+                    int position = META_SIZE + offsetOf(entry);
+                    byte[] keyBytes = new byte[buffer.getInt(position + 4)];
+                    buffer.get(position + HEADER_SIZE, keyBytes);
+                    keys.add(new String(keyBytes, StandardCharsets.UTF_8));
+                }
+            }
+            return keys;
+        }
+
+        void reset() {
+            head = 0;
+            tail = 0;
+            used = 0;
+            count = 0;
+            Arrays.fill(table, 0L);
+            writeMeta();
+        }
+
+        /**
+         * 分配 length 字节，空间不足时回收尾部记录
+         */
+        private int allocate(int length) {
+            int offset;
+            while ((offset = tryAllocate(length)) < 0) {
+                reclaimTail();
+            }
+            return offset;
+        }
+
+        private int tryAllocate(int length) {
+            if (used == 0) {
+                head = 0;
+                tail = 0;
+            }
+            int gap = head + length > dataSize ? dataSize - head : 0;
+            if (dataSize - used < gap + length) {
+                return -1;
+            }
+            if (gap > 0) {
+                // 尾部剩余空间放不下记录，标记跳过后从头开始；不足一个记录头时读取方按剩余长度判断
+                if (gap >= HEADER_SIZE) {
+                    buffer.putShort(META_SIZE + head, RECORD_MAGIC);
+                    buffer.put(META_SIZE + head + 2, FLAG_SKIP);
+                }
+                used += gap;
+                head = 0;
+            }
+            int offset = head;
+            head += length;
+            used += length;
+            if (head == dataSize) {
+                head = 0;
+            }
+            return offset;
+        }
+
+        private void reclaimTail() {
+            int position = META_SIZE + tail;
+            if (dataSize - tail < HEADER_SIZE || buffer.getShort(position) != RECORD_MAGIC || (buffer.get(position + 2) & FLAG_SKIP) != 0) {
+                used -= dataSize - tail;
+                tail = 0;
+                return;
+            }
+            byte flags = buffer.get(position + 2);
+            int hash = buffer.getInt(position + 12);
+            int length = HEADER_SIZE + buffer.getInt(position + 4) + buffer.getInt(position + 8);
+            int offset = tail;
+            tail += length;
+            used -= length;
+            if (tail == dataSize) {
+                tail = 0;
+            }
+            if ((flags & FLAG_LIVE) == 0) {
+                return;
+            }
+            long expireAt = buffer.getLong(position + 16);
+            if ((flags & FLAG_REFERENCED) != 0 && (expireAt == 0 || expireAt > System.currentTimeMillis())) {
+                // 第二次机会：清除引用位后搬到头部
+                byte[] record = new byte[length];
+                buffer.get(position, record);
+                record[2] = FLAG_LIVE;
+                int newOffset = tryAllocate(length);
+                if (newOffset >= 0) {
+                    buffer.put(META_SIZE + newOffset, record);
+                    relocate(hash, offset, newOffset);
+                    return;
+                }
+            }
+            buffer.put(position + 2, (byte) 0);
+            removeSlot(findOffset(hash, offset));
+            evictions.increment();
+        }
+
+        /**
+         * 文件映射模式重启后从 tail 扫描到 head 重建索引
+         */
+        private void rebuild(int savedHead, int savedTail, int savedUsed) {
+            head = savedHead;
+            tail = savedTail;
+            used = savedUsed;
+            long now = System.currentTimeMillis();
+            int offset = tail;
+            int remaining = used;
+            while (remaining > 0) {
+                int position = META_SIZE + offset;
+                if (dataSize - offset < HEADER_SIZE || buffer.getShort(position) != RECORD_MAGIC || (buffer.get(position + 2) & FLAG_SKIP) != 0) {
+                    remaining -= dataSize - offset;
+                    offset = 0;
+                    continue;
+                }
+                int keyLength = buffer.getInt(position + 4);
+                int length = HEADER_SIZE + keyLength + buffer.getInt(position + 8);
+                if (keyLength < 0 || length < HEADER_SIZE || length > dataSize - offset) {
+                    // 文件损坏（如系统崩溃时页未落盘），丢弃整段
+                    Arrays.fill(table, 0L);
+                    reset();
+                    return;
+                }
+                long expireAt = buffer.getLong(position + 16);
+                if ((buffer.get(position + 2) & FLAG_LIVE) != 0) {
+                    if (expireAt > 0 && expireAt <= now) {
+                        buffer.put(position + 2, (byte) 0);
+                    } else {
+                        byte[] keyBytes = new byte[keyLength];
+                        buffer.get(position + HEADER_SIZE, keyBytes);
+                        int hash = buffer.getInt(position + 12);
+                        // 后写入的记录覆盖先写入的
+                        remove(hash, keyBytes);
+                        insert(hash, offset);
+                    }
+                }
+                remaining -= length;
+                offset += length;
+                if (offset == dataSize) {
+                    offset = 0;
+                }
+            }
+        }
+
+        private void writeMeta() {
+            if (!persistent) {
+                return;
+            }
+            buffer.putInt(0, SEGMENT_MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, head);
+            buffer.putInt(12, tail);
+            buffer.putInt(16, used);
+            buffer.putInt(20, dataSize);
+        }
+
+        private int find(int hash, byte[] keyBytes) {
+            int mask = table.length - 1;
+            int slot = hash & mask;
+            long entry;
+            while ((entry = table[slot]) != 0) {
+                if ((int) (entry >>> 32) == hash && keyEquals(offsetOf(entry), keyBytes)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int findOffset(int hash, int offset) {
+            int mask = table.length - 1;
+            int slot = hash & mask;
+            long entry;
+            while ((entry = table[slot]) != 0) {
+                if ((int) (entry >>> 32) == hash && offsetOf(entry) == offset) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private boolean keyEquals(int offset, byte[] keyBytes) {
+            int position = META_SIZE + offset;
+            if (buffer.getInt(position + 4) != keyBytes.length) {
+                return false;
+            }
+            int keyPosition = position + HEADER_SIZE;
+            for (int i = 0; i < keyBytes.length; i++) {
+                if (buffer.get(keyPosition + i) != keyBytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void insert(int hash, int offset) {
+            if ((count + 1) * 4L > table.length * 3L) {
+                resize();
+            }
+            int mask = table.length - 1;
+            int slot = hash & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = entryOf(hash, offset);
+            count++;
+        }
+
+        private void relocate(int hash, int oldOffset, int newOffset) {
+            int slot = findOffset(hash, oldOffset);
+            if (slot >= 0) {
+                table[slot] = entryOf(hash, newOffset);
+            }
+        }
+
+        /**
+         * 线性探测的后移删除，不留墓碑
+         */
+        private void removeSlot(int slot) {
+            if (slot < 0) {
+                return;
+            }
+            int mask = table.length - 1;
+            int hole = slot;
+            table[hole] = 0;
+            int next = hole;
+            while (true) {
+                next = (next + 1) & mask;
+                long entry = table[next];
+                if (entry == 0) {
+                    break;
+                }
+                int home = (int) (entry >>> 32) & mask;
+                boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+                if (movable) {
+                    table[hole] = entry;
+                    table[next] = 0;
+                    hole = next;
+                }
+            }
+            count--;
+        }
+
+        private void resize() {
+            long[] old = table;
+            table = new long[old.length << 1];
+            int mask = table.length - 1;
+            for (long entry : old) {
+                if (entry != 0) {
+                    int slot = (int) (entry >>> 32) & mask;
+                    while (table[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    table[slot] = entry;
+                }
+            }
+        }
+
+        private int offsetOf(long entry) {
+            return (int) (entry & 0xffffffffL) - 1;
+        }
+
+        private long entryOf(int hash, int offset) {
+            return ((long) hash << 32) | ((offset + 1L) & 0xffffffffL);
+        }
+    }
+}
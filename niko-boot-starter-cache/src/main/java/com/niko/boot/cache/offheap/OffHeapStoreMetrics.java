@@ -0,0 +1,45 @@
+package com.niko.boot.cache.offheap;
+
+import com.niko.boot.cache.support.NikoTwoLevelCache;
+import com.niko.boot.cache.support.NikoTwoLevelCacheManager;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 堆外缓存指标
+ * 按缓存名称输出容量、占用、条目数与命中/未命中/淘汰次数（启动时已创建且启用堆外缓存的缓存）
+ */
+public class OffHeapStoreMetrics implements MeterBinder {
+
+    private final NikoTwoLevelCacheManager cacheManager;
+
+    public OffHeapStoreMetrics(NikoTwoLevelCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (NikoTwoLevelCache cache : cacheManager.getCaches()) {
+            OffHeapStore store = cache.getOffHeapStore();
+            if (store == null) {
+                continue;
+            }
+            String name = cache.getName();
+            Gauge.builder("niko.cache.offheap.capacity", store, OffHeapStore::getCapacity)
+                    .tag("cache", name).baseUnit("bytes").register(registry);
+            Gauge.builder("niko.cache.offheap.used", store, OffHeapStore::getUsedBytes)
+                    .tag("cache", name).baseUnit("bytes").register(registry);
+            Gauge.builder("niko.cache.offheap.size", store, OffHeapStore::size)
+                    .tag("cache", name).register(registry);
+            FunctionCounter.builder("niko.cache.offheap.gets", store, OffHeapStore::getHitCount)
+                    .tag("cache", name).tag("result", "hit").register(registry);
+            FunctionCounter.builder("niko.cache.offheap.gets", store, OffHeapStore::getMissCount)
+                    .tag("cache", name).tag("result", "miss").register(registry);
+            FunctionCounter.builder("niko.cache.offheap.evictions", store, OffHeapStore::getEvictionCount)
+                    .tag("cache", name).register(registry);
+        }
+    }
+}
@@ -0,0 +1,713 @@
+package com.niko.boot.cache.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.cache.support.NullValue;
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.niko.boot.cache.support.CacheEnvelope;
+
+/**
+ * 紧凑二进制 Redis 序列化器（纯 Java，无第三方依赖）
+ *
+ * <p>编码规则：</p>
+ * <ul>
+ *   <li>基本类型、String、byte[]、BigDecimal、BigInteger、Date、LocalDate、LocalDateTime、Instant、枚举：类型标记 + 紧凑值（整数为 ZigZag 变长编码）</li>
+ *   <li>java.util 包下的 List/Set/Map（不含 java.util.concurrent）：按元素递归编码，反序列化为 ArrayList/LinkedHashSet/LinkedHashMap</li>
+ *   <li>注册类：以注册编号代替类名，按字段（record 按组件）递归编码；Map/Collection 子类（如 NikoResult）按元素编码</li>
+ *   <li>其他 Serializable 对象：回退为 JDK 序列化</li>
+ * </ul>
+ * 编码后超过 compressionThreshold 字节时使用 Deflater（BEST_SPEED）压缩
+ *
+ * <p>注册编号按 register() 调用顺序从1开始分配，读写双方须以相同顺序注册相同的类；
+ * 修改注册类的字段后，旧缓存数据无法读取，应同时调整 key 前缀或清空缓存</p>
+ */
+public class NikoBinaryRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte VERSION = 0x10;
+    private static final byte FLAG_COMPRESSED = 0x01;
+
+    private static final byte T_NULL = 0;
+    private static final byte T_TRUE = 1;
+    private static final byte T_FALSE = 2;
+    private static final byte T_INT = 3;
+    private static final byte T_LONG = 4;
+    private static final byte T_DOUBLE = 5;
+    private static final byte T_FLOAT = 6;
+    private static final byte T_SHORT = 7;
+    private static final byte T_BYTE = 8;
+    private static final byte T_CHAR = 9;
+    private static final byte T_STRING = 10;
+    private static final byte T_BYTES = 11;
+    private static final byte T_BIG_DECIMAL = 12;
+    private static final byte T_BIG_INTEGER = 13;
+    private static final byte T_DATE = 14;
+    private static final byte T_LOCAL_DATE = 15;
+    private static final byte T_LOCAL_DATE_TIME = 16;
+    private static final byte T_INSTANT = 17;
+    private static final byte T_ENUM = 18;
+    private static final byte T_LIST = 19;
+    private static final byte T_SET = 20;
+    private static final byte T_MAP = 21;
+    private static final byte T_NULL_VALUE = 22;
+    private static final byte T_ENVELOPE = 23;
+    private static final byte T_OBJECT = 24;
+    private static final byte T_OBJECT_MAP = 25;
+    private static final byte T_OBJECT_COLLECTION = 26;
+    private static final byte T_JDK = 27;
+
+    /** 默认压缩阈值（字节） */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    private final List<ClassLayout> layoutsById = new ArrayList<ClassLayout>();
+    private final Map<Class<?>, ClassLayout> layoutsByClass = new ConcurrentHashMap<Class<?>, ClassLayout>();
+    private final int compressionThreshold;
+    private final ClassLoader classLoader;
+
+    public NikoBinaryRedisSerializer() {
+        this(DEFAULT_COMPRESSION_THRESHOLD, null);
+    }
+
+    /**
+     * @param compressionThreshold 压缩阈值（字节），小于0时不压缩
+     * @param classLoader 反序列化枚举与 JDK 对象使用的 ClassLoader，为null时使用本类的 ClassLoader
+     */
+    public NikoBinaryRedisSerializer(int compressionThreshold, ClassLoader classLoader) {
+        this.compressionThreshold = compressionThreshold;
+        this.classLoader = classLoader != null ? classLoader : NikoBinaryRedisSerializer.class.getClassLoader();
+    }
+
+    /**
+     * 注册类，编号按调用顺序分配
+     * 须在首次序列化前完成注册
+     * @param types 类
+     * @return this
+     */
+    public synchronized NikoBinaryRedisSerializer register(Class<?>... types) {
+        for (Class<?> type : types) {
+            if (layoutsByClass.containsKey(type)) {
+                continue;
+            }
+            ClassLayout layout = new ClassLayout(layoutsById.size() + 1, type);
+            layoutsById.add(layout);
+            layoutsByClass.put(type, layout);
+        }
+        return this;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        BinaryOutput out = new BinaryOutput(128);
+        out.writeByte(VERSION);
+        writeValue(out, value, 0);
+        int bodyLength = out.size() - 1;
+        if (compressionThreshold < 0 || bodyLength <= compressionThreshold) {
+            return out.toByteArray();
+        }
+        return compress(out.buffer(), bodyLength);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if ((bytes[0] & 0xF0) != VERSION) {
+            throw new SerializationException("不支持的序列化格式版本: " + bytes[0]);
+        }
+        BinaryInput in;
+        if ((bytes[0] & FLAG_COMPRESSED) != 0) {
+            in = new BinaryInput(decompress(bytes));
+        } else {
+            in = new BinaryInput(bytes, 1);
+        }
+        return readValue(in, 0);
+    }
+
+    private void writeValue(BinaryOutput out, Object value, int depth) {
+        if (depth > 64) {
+            throw new SerializationException("对象嵌套层级过深，可能存在循环引用");
+        }
+        if (value == null) {
+            out.writeByte(T_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(T_STRING);
+            out.writeString((String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(T_INT);
+            out.writeVarLong((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(T_LONG);
+            out.writeVarLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? T_TRUE : T_FALSE);
+        } else if (value instanceof Double) {
+            out.writeByte(T_DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Float) {
+            out.writeByte(T_FLOAT);
+            out.writeVarLong(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof Short) {
+            out.writeByte(T_SHORT);
+            out.writeVarLong((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(T_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            out.writeByte(T_CHAR);
+            out.writeVarLong((Character) value);
+        } else if (value instanceof byte[]) {
+            out.writeByte(T_BYTES);
+            out.writeBytes((byte[]) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(T_BIG_DECIMAL);
+            out.writeString(((BigDecimal) value).toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(T_BIG_INTEGER);
+            out.writeBytes(((BigInteger) value).toByteArray());
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(T_DATE);
+            out.writeVarLong(((Date) value).getTime());
+        } else if (value instanceof LocalDate) {
+            out.writeByte(T_LOCAL_DATE);
+            out.writeVarLong(((LocalDate) value).toEpochDay());
+        } else if (value instanceof LocalDateTime) {
+            LocalDateTime dateTime = (LocalDateTime) value;
+            out.writeByte(T_LOCAL_DATE_TIME);
+            out.writeVarLong(dateTime.toLocalDate().toEpochDay());
+            out.writeVarLong(dateTime.toLocalTime().toNanoOfDay());
+        } else if (value instanceof Instant) {
+            out.writeByte(T_INSTANT);
+            out.writeVarLong(((Instant) value).getEpochSecond());
+            out.writeVarLong(((Instant) value).getNano());
+        } else if (value instanceof Enum) {
+            out.writeByte(T_ENUM);
+            writeClassRef(out, ((Enum<?>) value).getDeclaringClass());
+            out.writeString(((Enum<?>) value).name());
+        } else if (value instanceof NullValue) {
+            out.writeByte(T_NULL_VALUE);
+        } else if (value instanceof CacheEnvelope) {
+            CacheEnvelope envelope = (CacheEnvelope) value;
+            out.writeByte(T_ENVELOPE);
+            out.writeVarLong(envelope.getDeltaMillis());
+            out.writeVarLong(envelope.getExpireAtMillis());
+            writeValue(out, envelope.getValue(), depth + 1);
+        } else {
+            writeObject(out, value, depth);
+        }
+    }
+
+    private void writeObject(BinaryOutput out, Object value, int depth) {
+        ClassLayout layout = layoutsByClass.get(value.getClass());
+        boolean jdkCollection = "java.util".equals(value.getClass().getPackageName());
+        if (layout != null && value instanceof Map) {
+            out.writeByte(T_OBJECT_MAP);
+            out.writeVarInt(layout.id);
+            writeEntries(out, (Map<?, ?>) value, depth);
+        } else if (layout != null && value instanceof Collection) {
+            out.writeByte(T_OBJECT_COLLECTION);
+            out.writeVarInt(layout.id);
+            writeElements(out, (Collection<?>) value, depth);
+        } else if (layout != null) {
+            out.writeByte(T_OBJECT);
+            out.writeVarInt(layout.id);
+            for (Object fieldValue : layout.read(value)) {
+                writeValue(out, fieldValue, depth + 1);
+            }
+        } else if (jdkCollection && value instanceof List) {
+            out.writeByte(T_LIST);
+            writeElements(out, (Collection<?>) value, depth);
+        } else if (jdkCollection && value instanceof Set) {
+            out.writeByte(T_SET);
+            writeElements(out, (Collection<?>) value, depth);
+        } else if (jdkCollection && value instanceof Map) {
+            out.writeByte(T_MAP);
+            writeEntries(out, (Map<?, ?>) value, depth);
+        } else if (value instanceof Serializable) {
+            out.writeByte(T_JDK);
+            out.writeBytes(jdkSerialize(value));
+        } else {
+            throw new SerializationException("无法序列化未注册且未实现Serializable的类型: " + value.getClass().getName());
+        }
+    }
+
+    private void writeElements(BinaryOutput out, Collection<?> collection, int depth) {
+        out.writeVarInt(collection.size());
+        for (Object element : collection) {
+            writeValue(out, element, depth + 1);
+        }
+    }
+
+    private void writeEntries(BinaryOutput out, Map<?, ?> map, int depth) {
+        out.writeVarInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeValue(out, entry.getKey(), depth + 1);
+            writeValue(out, entry.getValue(), depth + 1);
+        }
+    }
+
+    private void writeClassRef(BinaryOutput out, Class<?> type) {
+        ClassLayout layout = layoutsByClass.get(type);
+        if (layout != null) {
+            out.writeVarInt(layout.id);
+        } else {
+            out.writeVarInt(0);
+            out.writeString(type.getName());
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Object readValue(BinaryInput in, int depth) {
+        byte tag = in.readByte();
+        switch (tag) {
+            case T_NULL:
+                return null;
+            case T_TRUE:
+                return Boolean.TRUE;
+            case T_FALSE:
+                return Boolean.FALSE;
+            case T_INT:
+                return (int) in.readVarLong();
+            case T_LONG:
+                return in.readVarLong();
+            case T_DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case T_FLOAT:
+                return Float.intBitsToFloat((int) in.readVarLong());
+            case T_SHORT:
+                return (short) in.readVarLong();
+            case T_BYTE:
+                return in.readByte();
+            case T_CHAR:
+                return (char) in.readVarLong();
+            case T_STRING:
+                return in.readString();
+            case T_BYTES:
+                return in.readBytes();
+            case T_BIG_DECIMAL:
+                return new BigDecimal(in.readString());
+            case T_BIG_INTEGER:
+                return new BigInteger(in.readBytes());
+            case T_DATE:
+                return new Date(in.readVarLong());
+            case T_LOCAL_DATE:
+                return LocalDate.ofEpochDay(in.readVarLong());
+            case T_LOCAL_DATE_TIME:
+                return LocalDateTime.of(LocalDate.ofEpochDay(in.readVarLong()), LocalTime.ofNanoOfDay(in.readVarLong()));
+            case T_INSTANT:
+                return Instant.ofEpochSecond(in.readVarLong(), in.readVarLong());
+            case T_ENUM:
+                return Enum.valueOf((Class<Enum>) readClassRef(in), in.readString());
+            case T_NULL_VALUE:
+                return NullValue.INSTANCE;
+            case T_ENVELOPE:
+                long delta = in.readVarLong();
+                long expireAt = in.readVarLong();
+                return new CacheEnvelope(readValue(in, depth + 1), delta, expireAt);
+            case T_LIST:
+                return readElements(in, new ArrayList<Object>(), depth);
+            case T_SET:
+                return readElements(in, new LinkedHashSet<Object>(), depth);
+            case T_MAP:
+                return readEntries(in, new LinkedHashMap<Object, Object>(), depth);
+            case T_OBJECT_MAP:
+                return readEntries(in, (Map<Object, Object>) layout(in.readVarInt()).newInstance(), depth);
+            case T_OBJECT_COLLECTION:
+                return readElements(in, (Collection<Object>) layout(in.readVarInt()).newInstance(), depth);
+            case T_OBJECT:
+                ClassLayout layout = layout(in.readVarInt());
+                Object[] values = new Object[layout.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = readValue(in, depth + 1);
+                }
+                return layout.create(values);
+            case T_JDK:
+                return jdkDeserialize(in.readBytes());
+            default:
+                throw new SerializationException("未知的类型标记: " + tag);
+        }
+    }
+
+    private Collection<Object> readElements(BinaryInput in, Collection<Object> collection, int depth) {
+        int size = in.readVarInt();
+        for (int i = 0; i < size; i++) {
+            collection.add(readValue(in, depth + 1));
+        }
+        return collection;
+    }
+
+    private Map<Object, Object> readEntries(BinaryInput in, Map<Object, Object> map, int depth) {
+        int size = in.readVarInt();
+        for (int i = 0; i < size; i++) {
+            map.put(readValue(in, depth + 1), readValue(in, depth + 1));
+        }
+        return map;
+    }
+
+    private Class<?> readClassRef(BinaryInput in) {
+        int id = in.readVarInt();
+        if (id > 0) {
+            return layout(id).type;
+        }
+        String className = in.readString();
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new SerializationException("找不到类: " + className, e);
+        }
+    }
+
+    private ClassLayout layout(int id) {
+        if (id <= 0 || id > layoutsById.size()) {
+            throw new SerializationException("未注册的类编号: " + id);
+        }
+        return layoutsById.get(id - 1);
+    }
+
+    private byte[] jdkSerialize(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            throw new SerializationException("JDK序列化失败: " + value.getClass().getName(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Object jdkDeserialize(byte[] bytes) {
+        try (ObjectInputStream in = new ConfigurableObjectInputStream(new ByteArrayInputStream(bytes), classLoader)) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new SerializationException("JDK反序列化失败", e);
+        }
+    }
+
+    private static byte[] compress(byte[] buffer, int bodyLength) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(buffer, 1, bodyLength);
+            deflater.finish();
+            BinaryOutput out = new BinaryOutput(bodyLength / 2 + 16);
+            out.writeByte((byte) (VERSION | FLAG_COMPRESSED));
+            out.writeVarInt(bodyLength);
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(byte[] bytes) {
+        BinaryInput header = new BinaryInput(bytes, 1);
+        int bodyLength = header.readVarInt();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, header.position(), bytes.length - header.position());
+            byte[] body = new byte[bodyLength];
+            int offset = 0;
+            while (offset < bodyLength && !inflater.finished()) {
+                int n = inflater.inflate(body, offset, bodyLength - offset);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += n;
+            }
+            if (offset != bodyLength) {
+                throw new SerializationException("压缩数据不完整");
+            }
+            return body;
+        } catch (DataFormatException e) {
+            throw new SerializationException("解压失败", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 注册类的字段布局
+     */
+    private static class ClassLayout {
+
+        private final int id;
+        private final Class<?> type;
+        private final Field[] fields;
+        private final RecordComponent[] components;
+        private final Constructor<?> constructor;
+
+        ClassLayout(int id, Class<?> type) {
+            this.id = id;
+            this.type = type;
+            try {
+                if (type.isRecord()) {
+                    components = type.getRecordComponents();
+                    Class<?>[] parameterTypes = Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new);
+                    constructor = type.getDeclaredConstructor(parameterTypes);
+                    fields = new Field[0];
+                } else {
+                    components = null;
+                    constructor = type.getDeclaredConstructor();
+                    fields = (Map.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type)) ? new Field[0] : collectFields(type);
+                }
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("注册类[" + type.getName() + "]缺少无参构造方法", e);
+            }
+        }
+
+        private static Field[] collectFields(Class<?> type) {
+            List<Field> result = new ArrayList<Field>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                List<Field> declared = new ArrayList<Field>();
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                        field.setAccessible(true);
+                        declared.add(field);
+                    }
+                }
+                declared.sort(Comparator.comparing(Field::getName));
+                result.addAll(0, declared);
+            }
+            return result.toArray(new Field[0]);
+        }
+
+        int size() {
+            return components != null ? components.length : fields.length;
+        }
+
+        Object[] read(Object target) {
+            try {
+                Object[] values = new Object[size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = components != null ? components[i].getAccessor().invoke(target) : fields[i].get(target);
+                }
+                return values;
+            } catch (ReflectiveOperationException e) {
+                throw new SerializationException("读取字段失败: " + type.getName(), e);
+            }
+        }
+
+        Object newInstance() {
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new SerializationException("实例化失败: " + type.getName(), e);
+            }
+        }
+
+        Object create(Object[] values) {
+            try {
+                if (components != null) {
+                    return constructor.newInstance(values);
+                }
+                Object target = constructor.newInstance();
+                for (int i = 0; i < fields.length; i++) {
+                    if (values[i] != null || !fields[i].getType().isPrimitive()) {
+                        fields[i].set(target, values[i]);
+                    }
+                }
+                return target;
+            } catch (ReflectiveOperationException | IllegalArgumentException e) {
+                throw new SerializationException("反序列化注册类失败，字段可能已变更: " + type.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * 可增长的字节输出
+     */
+    private static class BinaryOutput {
+
+        private byte[] buffer;
+        private int size;
+
+        BinaryOutput(int capacity) {
+            buffer = new byte[Math.max(16, capacity)];
+        }
+
+        void writeByte(byte b) {
+            ensure(1);
+            buffer[size++] = b;
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        /** ZigZag 变长编码，小的负数同样紧凑 */
+        void writeVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            ensure(10);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[size++] = (byte) zigzag;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeString(String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] buffer() {
+            return buffer;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + extra));
+            }
+        }
+    }
+
+    /**
+     * 字节输入
+     */
+    private static class BinaryInput {
+
+        private final byte[] buffer;
+        private int position;
+
+        BinaryInput(byte[] buffer) {
+            this(buffer, 0);
+        }
+
+        BinaryInput(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte readByte() {
+            if (position >= buffer.length) {
+                throw new SerializationException("数据不完整");
+            }
+            return buffer[position++];
+        }
+
+        int readVarInt() {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new SerializationException("变长整数格式错误");
+        }
+
+        long readVarLong() {
+            long zigzag = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                zigzag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+            throw new SerializationException("变长整数格式错误");
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (readByte() & 0xFF);
+            }
+            return value;
+        }
+
+        byte[] readBytes() {
+            int length = readVarInt();
+            if (length < 0 || position + length > buffer.length) {
+                throw new SerializationException("数据不完整");
+            }
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        String readString() {
+            int length = readVarInt();
+            if (length < 0 || position + length > buffer.length) {
+                throw new SerializationException("数据不完整");
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        int position() {
+            return position;
+        }
+    }
+}
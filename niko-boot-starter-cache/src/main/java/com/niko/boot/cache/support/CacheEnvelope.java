@@ -0,0 +1,46 @@
+package com.niko.boot.cache.support;
+
+import java.io.Serializable;
+
+/**
+ * 缓存值包装
+ * 除缓存值外记录回源耗时与过期时间，用于提前刷新（XFetch）判断
+ */
+public class CacheEnvelope implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object value;
+    private final long deltaMillis;
+    private final long expireAtMillis;
+
+    public CacheEnvelope(Object value, long deltaMillis, long expireAtMillis) {
+        this.value = value;
+        this.deltaMillis = deltaMillis;
+        this.expireAtMillis = expireAtMillis;
+    }
+
+    /**
+     * 缓存值（store value，null 值为 NullValue）
+     * @return value
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * 回源耗时（毫秒），直接 put 的值为0
+     * @return deltaMillis
+     */
+    public long getDeltaMillis() {
+        return deltaMillis;
+    }
+
+    /**
+     * 过期时间戳（毫秒），0 表示不过期
+     * @return expireAtMillis
+     */
+    public long getExpireAtMillis() {
+        return expireAtMillis;
+    }
+}
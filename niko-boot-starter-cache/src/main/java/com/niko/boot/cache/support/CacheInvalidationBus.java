@@ -0,0 +1,204 @@
+package com.niko.boot.cache.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 跨节点 L1 失效通知
+ * 通过 Redis 发布订阅广播 缓存名称 + key（或整个缓存清空），各节点收到后只失效本地 L1，忽略本节点发出的消息
+ * 热点 key 的提升通知、进程内布隆过滤器的增量写入与重建通知复用同一频道
+ */
+public class CacheInvalidationBus implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final char SEPARATOR = '\u001f';
+    private static final char KEY_SEPARATOR = '\u001e';
+    private static final char TYPE_KEY = 'K';
+    private static final char TYPE_CLEAR = 'C';
+    private static final char TYPE_HOT = 'H';
+    private static final char TYPE_BLOOM_PUT = 'B';
+    private static final char TYPE_BLOOM_REBUILD = 'R';
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String channel;
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile BiConsumer<String, String> handler;
+    private volatile BiConsumer<String, String> hotKeyHandler;
+    private volatile BiConsumer<String, String> bloomPutHandler;
+    private volatile BiConsumer<String, Boolean> bloomRebuildHandler;
+
+    public CacheInvalidationBus(StringRedisTemplate stringRedisTemplate, String channel) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.channel = channel;
+    }
+
+    /**
+     * 设置收到通知后的处理函数
+     * @param handler 参数为 缓存名称、key（清空整个缓存时为null）
+     */
+    public void setHandler(BiConsumer<String, String> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * 设置收到热点 key 通知后的处理函数
+     * @param hotKeyHandler 参数为 缓存名称、key
+     */
+    public void setHotKeyHandler(BiConsumer<String, String> hotKeyHandler) {
+        this.hotKeyHandler = hotKeyHandler;
+    }
+
+    /**
+     * 设置收到布隆过滤器增量写入通知后的处理函数
+     * @param bloomPutHandler 参数为 过滤器名称、元素
+     */
+    public void setBloomPutHandler(BiConsumer<String, String> bloomPutHandler) {
+        this.bloomPutHandler = bloomPutHandler;
+    }
+
+    /**
+     * 设置收到布隆过滤器重建开始/结束通知后的处理函数
+     * @param bloomRebuildHandler 参数为 过滤器名称、是否开始重建
+     */
+    public void setBloomRebuildHandler(BiConsumer<String, Boolean> bloomRebuildHandler) {
+        this.bloomRebuildHandler = bloomRebuildHandler;
+    }
+
+    /**
+     * 广播布隆过滤器增量写入
+     * @param filterName 过滤器名称
+     * @param key 元素
+     */
+    public void publishBloomPut(String filterName, String key) {
+        publish(instanceId + SEPARATOR + filterName + SEPARATOR + TYPE_BLOOM_PUT + key);
+    }
+
+    /**
+     * 广播布隆过滤器重建开始/结束
+     * @param filterName 过滤器名称
+     * @param started 是否开始重建
+     */
+    public void publishBloomRebuild(String filterName, boolean started) {
+        publish(instanceId + SEPARATOR + filterName + SEPARATOR + TYPE_BLOOM_REBUILD + (started ? "1" : "0"));
+    }
+
+    /**
+     * 广播热点 key
+     * @param cacheName 缓存名称
+     * @param key 缓存key
+     */
+    public void publishHot(String cacheName, String key) {
+        publish(instanceId + SEPARATOR + cacheName + SEPARATOR + TYPE_HOT + key);
+    }
+
+    /**
+     * 广播失效单个 key
+     * @param cacheName 缓存名称
+     * @param key 缓存key
+     */
+    public void publishEvict(String cacheName, String key) {
+        publish(instanceId + SEPARATOR + cacheName + SEPARATOR + TYPE_KEY + key);
+    }
+
+    /**
+     * 广播失效多个 key，合并为一条消息
+     * @param cacheName 缓存名称
+     * @param keys 缓存key
+     */
+    public void publishEvict(String cacheName, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder(instanceId).append(SEPARATOR).append(cacheName).append(SEPARATOR).append(TYPE_KEY);
+        boolean first = true;
+        for (String key : keys) {
+            if (!first) {
+                message.append(KEY_SEPARATOR);
+            }
+            message.append(key);
+            first = false;
+        }
+        publish(message.toString());
+    }
+
+    /**
+     * 广播清空缓存
+     * @param cacheName 缓存名称
+     */
+    public void publishClear(String cacheName) {
+        publish(instanceId + SEPARATOR + cacheName + SEPARATOR + TYPE_CLEAR);
+    }
+
+    private void publish(String message) {
+        try {
+            stringRedisTemplate.convertAndSend(channel, message);
+        } catch (Exception e) {
+            // 通知失败时其他节点的 L1 依赖 l1Ttl 过期兜底
+            logger.warn("缓存失效通知发送失败，频道: [{}]，错误: {}", channel, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : body.indexOf(SEPARATOR, first + 1);
+        if (second < 0 || second + 1 >= body.length()) {
+            logger.warn("忽略无法解析的缓存失效通知: {}", body);
+            return;
+        }
+        if (body.regionMatches(0, instanceId, 0, first) && first == instanceId.length()) {
+            return;
+        }
+        String cacheName = body.substring(first + 1, second);
+        if (body.charAt(second + 1) == TYPE_HOT) {
+            BiConsumer<String, String> hotHandler = hotKeyHandler;
+            if (hotHandler != null) {
+                hotHandler.accept(cacheName, body.substring(second + 2));
+            }
+            return;
+        }
+        if (body.charAt(second + 1) == TYPE_BLOOM_PUT) {
+            BiConsumer<String, String> putHandler = bloomPutHandler;
+            if (putHandler != null) {
+                putHandler.accept(cacheName, body.substring(second + 2));
+            }
+            return;
+        }
+        if (body.charAt(second + 1) == TYPE_BLOOM_REBUILD) {
+            BiConsumer<String, Boolean> rebuildHandler = bloomRebuildHandler;
+            if (rebuildHandler != null) {
+                rebuildHandler.accept(cacheName, body.endsWith("1"));
+            }
+            return;
+        }
+        BiConsumer<String, String> current = handler;
+        if (current == null) {
+            return;
+        }
+        if (body.charAt(second + 1) != TYPE_KEY) {
+            current.accept(cacheName, null);
+            return;
+        }
+        int start = second + 2;
+        int end;
+        while ((end = body.indexOf(KEY_SEPARATOR, start)) >= 0) {
+            current.accept(cacheName, body.substring(start, end));
+            start = end + 1;
+        }
+        current.accept(cacheName, body.substring(start));
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+}
@@ -0,0 +1,924 @@
+package com.niko.boot.cache.support;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.niko.boot.cache.NikoCacheProperties.CacheSpec;
+import com.niko.boot.cache.hotkey.HotKeyDetector;
+import com.niko.boot.cache.offheap.OffHeapStore;
+
+/**
+ * 两级缓存
+ * L1：Caffeine（W-TinyLFU 淘汰），命中时不访问 Redis；条目在 l1Ttl 与 L2 过期时间中较早的一个到达时失效，
+ * 注解指定的 ttl / nullTtl 短于 l1Ttl 时同样生效
+ * L2：Redis，key 为 keyPrefix + cacheName + "::" + key，值为 CacheEnvelope
+ * 写入、失效、清空时通过 CacheInvalidationBus 通知其他节点失效 L1
+ *
+ * <p>get(key, valueLoader)（对应 @Cacheable(sync = true)）的防击穿处理：</p>
+ * <ul>
+ *   <li>单飞：同一 JVM 内同一 key 同时只有一个线程回源，其他线程等待同一个 CompletableFuture</li>
+ *   <li>租约：leaseTime 大于0时，回源前在 Redis 上 SET NX 抢占租约，未抢到的节点在租约期内轮询 L2 等待结果</li>
+ *   <li>提前刷新：earlyRefreshBeta 大于0时按 XFetch 算法在过期前以一定概率后台刷新，返回旧值不阻塞调用方；
+ *       后台刷新在其他线程执行 valueLoader，依赖线程上下文（事务、登录用户）的方法不应开启</li>
+ * </ul>
+ *
+ * <p>批量操作：getAll/putAll 先查 L1，未命中的 key 以 MGET 批量读取 L2，写入走管道（Cluster 模式按 slot 分组后以 Lua 脚本逐组写入），
+ * 仍未命中的 key 交给 loader 一次性加载</p>
+ *
+ * <p>热点 key：设置 HotKeyDetector 后对 L2 读取采样，被判定为热点的 key 额外缓存于短 TTL 的本地热点缓存，
+ * L1 未启用或已淘汰时也不再访问 Redis</p>
+ *
+ * <p>堆外缓存：设置 OffHeapStore 后作为 L1 与 Redis 之间的一层，CacheEnvelope 以缓存序列化器编码后存于直接内存或映射文件，
+ * 容量不受堆大小与 GC 限制；命中后反序列化并放入 L1；映射文件恢复的记录与 Redis 比对完成前不参与读取</p>
+ */
+public class NikoTwoLevelCache extends AbstractValueAdaptingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(NikoTwoLevelCache.class);
+
+    private static final int CLEAR_BATCH_SIZE = 500;
+    private static final long LEASE_POLL_MILLIS = 50;
+    private static final String LEASE_SUFFIX = ":lease";
+
+    /** Cluster 模式下同 slot 批量写入：ARGV[1] 为过期毫秒数，ARGV[i + 1] 对应 KEYS[i] 的值 */
+    private static final byte[] MULTI_SET_SCRIPT = ("local ttl = tonumber(ARGV[1]) "
+            + "for i, key in ipairs(KEYS) do "
+            + "if ttl > 0 then redis.call('SET', key, ARGV[i + 1], 'PX', ttl) else redis.call('SET', key, ARGV[i + 1]) end "
+            + "end return #KEYS").getBytes(StandardCharsets.UTF_8);
+
+    /** 提前刷新的后台线程池 */
+    private static final ExecutorService REFRESH_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final String name;
+    private final String redisKeyPrefix;
+    private final CacheSpec spec;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final Cache<String, CacheEnvelope> l1;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<String, CompletableFuture<Object>>();
+    private int batchSize = 500;
+    private boolean clusterSlotAware;
+    private HotKeyDetector hotKeyDetector;
+    private Cache<String, CacheEnvelope> hotCache;
+    private OffHeapStore offHeapStore;
+    private RedisSerializer<Object> offHeapSerializer;
+    private long offHeapTtlMillis;
+    /** 映射文件恢复的记录与 Redis 比对完成前不读取堆外缓存 */
+    private volatile boolean offHeapReadable;
+
+    public NikoTwoLevelCache(String name, String keyPrefix, CacheSpec spec, RedisTemplate<String, Object> redisTemplate, CacheInvalidationBus invalidationBus) {
+        super(Boolean.TRUE.equals(spec.getCacheNullValues()));
+        this.name = name;
+        this.redisKeyPrefix = keyPrefix + name + "::";
+        this.spec = spec;
+        this.redisTemplate = redisTemplate;
+        this.invalidationBus = invalidationBus;
+        if (Boolean.TRUE.equals(spec.getL1Enabled())) {
+            this.l1 = Caffeine.newBuilder()
+                    .maximumSize(spec.getL1MaxSize())
+                    .expireAfter(new EnvelopeExpiry(spec.getL1Ttl()))
+                    .recordStats()
+                    .build();
+        } else {
+            this.l1 = null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisTemplate;
+    }
+
+    /**
+     * L1 本地缓存，未启用时为null
+     * @return Caffeine Cache
+     */
+    public Cache<String, CacheEnvelope> getLocalCache() {
+        return l1;
+    }
+
+    public CacheSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * 启用热点 key 本地缓存
+     * @param hotKeyDetector 热点探测器
+     */
+    public void setHotKeyDetector(HotKeyDetector hotKeyDetector) {
+        this.hotCache = Caffeine.newBuilder()
+                .maximumSize(hotKeyDetector.getMaxHotKeys())
+                .expireAfter(new EnvelopeExpiry(hotKeyDetector.getLocalTtl()))
+                .build();
+        this.hotKeyDetector = hotKeyDetector;
+    }
+
+    /**
+     * 热点 key 本地缓存，未启用时为null
+     * @return Caffeine Cache
+     */
+    public Cache<String, CacheEnvelope> getHotCache() {
+        return hotCache;
+    }
+
+    /**
+     * 启用堆外缓存
+     * @param offHeapStore 堆外存储
+     * @param serializer CacheEnvelope 序列化器
+     * @param ttl 堆外条目过期时间，为null或0时只随 L2 过期
+     */
+    public void setOffHeapStore(OffHeapStore offHeapStore, RedisSerializer<Object> serializer, Duration ttl) {
+        this.offHeapSerializer = serializer;
+        this.offHeapTtlMillis = isPositive(ttl) ? ttl.toMillis() : 0;
+        this.offHeapReadable = offHeapStore.size() == 0;
+        this.offHeapStore = offHeapStore;
+    }
+
+    /**
+     * 堆外缓存是否有待比对的恢复记录
+     * @return boolean
+     */
+    public boolean isOffHeapValidationPending() {
+        return offHeapStore != null && !offHeapReadable;
+    }
+
+    /**
+     * 将映射文件恢复的记录逐段与 Redis 比对：Redis 中已不存在或值不同的记录删除，完成后堆外缓存才参与读取
+     * 只删除不回写，比对期间的新写入与失效不受影响；Redis 不可用时清空堆外缓存
+     * @return 删除条数
+     */
+    public int validateOffHeap() {
+        if (offHeapStore == null || offHeapReadable) {
+            return 0;
+        }
+        int removed = 0;
+        try {
+            for (int i = 0; i < offHeapStore.getSegmentCount(); i++) {
+                for (List<String> chunk : partition(offHeapStore.segmentKeys(i))) {
+                    byte[][] redisKeys = new byte[chunk.size()][];
+                    for (int j = 0; j < chunk.size(); j++) {
+                        redisKeys[j] = redisKey(chunk.get(j)).getBytes(StandardCharsets.UTF_8);
+                    }
+                    List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(redisKeys));
+                    for (int j = 0; j < chunk.size(); j++) {
+                        byte[] remote = values != null ? values.get(j) : null;
+                        byte[] local = offHeapStore.peek(chunk.get(j));
+                        if (local != null && (remote == null || !Arrays.equals(local, remote))) {
+                            offHeapStore.remove(chunk.get(j));
+                            removed++;
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("堆外缓存恢复记录比对失败，清空堆外缓存，cache: [{}]，错误: {}", name, e.getMessage());
+            offHeapStore.clear();
+        }
+        offHeapReadable = true;
+        return removed;
+    }
+
+    /**
+     * 堆外缓存，未启用时为null
+     * @return OffHeapStore
+     */
+    public OffHeapStore getOffHeapStore() {
+        return offHeapStore;
+    }
+
+    /**
+     * 批量读写时每条 MGET / 每个管道的最大 key 数
+     * @param batchSize
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize必须大于0: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Redis Cluster 模式下按 slot 分组批量读写
+     * @param clusterSlotAware
+     */
+    public void setClusterSlotAware(boolean clusterSlotAware) {
+        this.clusterSlotAware = clusterSlotAware;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        CacheEnvelope envelope = readEnvelope(toCacheKey(key));
+        return envelope != null ? envelope.getValue() : null;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return get(key, valueLoader, null, isAllowNullValues(), null);
+    }
+
+    /**
+     * 读取缓存，未命中时单飞回源，并以指定 TTL 写入
+     * @param key 缓存key
+     * @param valueLoader 回源函数
+     * @param ttl 过期时间，为null时使用缓存配置
+     * @param cacheNull 回源结果为 null 时是否缓存
+     * @param nullTtl null 值的过期时间，为null时与 ttl 相同
+     * @return 缓存值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader, Duration ttl, boolean cacheNull, Duration nullTtl) {
+        String cacheKey = toCacheKey(key);
+        WritePolicy policy = policy(ttl, cacheNull, nullTtl);
+        CacheEnvelope envelope = readEnvelope(cacheKey);
+        if (envelope != null) {
+            if (shouldRefreshEarly(envelope)) {
+                refreshAsync(cacheKey, key, valueLoader, policy);
+            }
+            return (T) fromStoreValue(envelope.getValue());
+        }
+        return (T) fromStoreValue(loadSingleFlight(cacheKey, key, valueLoader, policy));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        put(key, value, null);
+    }
+
+    /**
+     * 以指定 TTL 写入
+     * @param key 缓存key
+     * @param value 缓存值
+     * @param ttl 过期时间，为null时使用缓存配置
+     */
+    public void put(Object key, Object value, Duration ttl) {
+        if (value == null && !isAllowNullValues()) {
+            evict(key);
+            return;
+        }
+        String cacheKey = toCacheKey(key);
+        writeEnvelope(cacheKey, toStoreValue(value), 0, ttl != null ? ttl : spec.getTtl());
+    }
+
+    /**
+     * 写入 null 值占位，不受 cacheNullValues 配置限制，用于防止不存在的 key 反复穿透
+     * @param key 缓存key
+     * @param ttl 过期时间，为null时使用缓存配置
+     */
+    public void putNull(Object key, Duration ttl) {
+        writeEnvelope(toCacheKey(key), NullValue.INSTANCE, 0, ttl != null ? ttl : spec.getTtl());
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        // 按注解缓存的 null 值在不允许 null 的缓存中同样以 NullValue 存储
+        if (storeValue instanceof NullValue) {
+            return null;
+        }
+        return super.fromStoreValue(storeValue);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        String cacheKey = toCacheKey(key);
+        Duration ttl = spec.getTtl();
+        CacheEnvelope envelope = newEnvelope(toStoreValue(value), 0, ttl);
+        Boolean absent = isPositive(ttl)
+                ? redisTemplate.opsForValue().setIfAbsent(redisKey(cacheKey), envelope, ttl)
+                : redisTemplate.opsForValue().setIfAbsent(redisKey(cacheKey), envelope);
+        if (Boolean.TRUE.equals(absent)) {
+            storeLocal(cacheKey, envelope);
+            invalidationBus.publishEvict(name, cacheKey);
+            return null;
+        }
+        CacheEnvelope existing = readL2(cacheKey);
+        return existing != null ? new SimpleValueWrapper(fromStoreValue(existing.getValue())) : null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictIfPresent(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String cacheKey = toCacheKey(key);
+        Boolean deleted = redisTemplate.delete(redisKey(cacheKey));
+        evictLocal(cacheKey);
+        invalidationBus.publishEvict(name, cacheKey);
+        return Boolean.TRUE.equals(deleted);
+    }
+
+    @Override
+    public void clear() {
+        ScanOptions options = ScanOptions.scanOptions().match(redisKeyPrefix + "*").count(CLEAR_BATCH_SIZE).build();
+        List<String> batch = new ArrayList<String>(CLEAR_BATCH_SIZE);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == CLEAR_BATCH_SIZE) {
+                    redisTemplate.delete(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            redisTemplate.delete(batch);
+        }
+        clearLocal();
+        invalidationBus.publishClear(name);
+    }
+
+    @Override
+    public boolean invalidate() {
+        clear();
+        return true;
+    }
+
+    /**
+     * 批量读取
+     * @param keys 缓存key
+     * @return 命中的 key 与值，缓存的 null 值以 null 返回
+     */
+    public <K> Map<K, Object> getAll(Collection<K> keys) {
+        Map<K, Object> result = new LinkedHashMap<K, Object>();
+        Map<String, K> missing = new LinkedHashMap<String, K>();
+        for (K key : keys) {
+            String cacheKey = toCacheKey(key);
+            CacheEnvelope envelope = readLocal(cacheKey);
+            if (envelope != null) {
+                result.put(key, fromStoreValue(envelope.getValue()));
+            } else {
+                missing.put(cacheKey, key);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        for (List<String> chunk : partition(missing.keySet())) {
+            List<String> redisKeys = new ArrayList<String>(chunk.size());
+            for (String cacheKey : chunk) {
+                redisKeys.add(redisKey(cacheKey));
+            }
+            List<Object> values = redisTemplate.opsForValue().multiGet(redisKeys);
+            if (values == null) {
+                continue;
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                Object value = values.get(i);
+                CacheEnvelope envelope = value == null || value instanceof CacheEnvelope ? (CacheEnvelope) value : new CacheEnvelope(value, 0, 0);
+                afterRemoteRead(chunk.get(i), envelope);
+                if (envelope == null) {
+                    continue;
+                }
+                result.put(missing.get(chunk.get(i)), fromStoreValue(envelope.getValue()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量读取，未命中的 key 一次性交给 loader 加载并写入缓存
+     * @param keys 缓存key
+     * @param loader 批量加载函数，参数为未命中的 key，返回结果中缺失的 key 视为 null
+     * @return key 与值，顺序与 keys 一致
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, Object> cached = getAll(keys);
+        Set<K> misses = new LinkedHashSet<K>();
+        for (K key : keys) {
+            if (!cached.containsKey(key)) {
+                misses.add(key);
+            }
+        }
+        Map<K, V> loaded = misses.isEmpty() ? null : loader.apply(misses);
+        if (loaded != null && !loaded.isEmpty()) {
+            putAll(loaded);
+        }
+        if (isAllowNullValues() && !misses.isEmpty()) {
+            Map<K, Object> nulls = new LinkedHashMap<K, Object>();
+            for (K key : misses) {
+                if (loaded == null || !loaded.containsKey(key)) {
+                    nulls.put(key, null);
+                }
+            }
+            putAll(nulls);
+        }
+        Map<K, V> result = new LinkedHashMap<K, V>();
+        for (K key : keys) {
+            if (cached.containsKey(key)) {
+                result.put(key, (V) cached.get(key));
+            } else if (loaded != null && loaded.containsKey(key)) {
+                result.put(key, loaded.get(key));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量写入
+     * 单机/哨兵模式以管道写入；Cluster 模式按 slot 分组，每组以一次 Lua 脚本写入
+     * 不缓存 null 值时跳过 null
+     * @param entries key 与值
+     */
+    @SuppressWarnings("unchecked")
+    public void putAll(Map<?, ?> entries) {
+        Map<String, CacheEnvelope> envelopes = new LinkedHashMap<String, CacheEnvelope>();
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            if (entry.getValue() == null && !isAllowNullValues()) {
+                continue;
+            }
+            envelopes.put(toCacheKey(entry.getKey()), newEnvelope(toStoreValue(entry.getValue()), 0, spec.getTtl()));
+        }
+        if (envelopes.isEmpty()) {
+            return;
+        }
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        Duration ttl = spec.getTtl();
+        long ttlMillis = isPositive(ttl) ? ttl.toMillis() : 0;
+        for (List<String> chunk : partition(envelopes.keySet())) {
+            if (clusterSlotAware) {
+                byte[][] keysAndArgs = new byte[chunk.size() * 2 + 1][];
+                keysAndArgs[chunk.size()] = String.valueOf(ttlMillis).getBytes(StandardCharsets.UTF_8);
+                for (int i = 0; i < chunk.size(); i++) {
+                    keysAndArgs[i] = redisKey(chunk.get(i)).getBytes(StandardCharsets.UTF_8);
+                    keysAndArgs[chunk.size() + 1 + i] = valueSerializer.serialize(envelopes.get(chunk.get(i)));
+                }
+                redisTemplate.execute((RedisCallback<Object>) connection -> connection.scriptingCommands()
+                        .eval(MULTI_SET_SCRIPT, ReturnType.INTEGER, chunk.size(), keysAndArgs));
+            } else {
+                Expiration expiration = ttlMillis > 0 ? Expiration.milliseconds(ttlMillis) : Expiration.persistent();
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (String cacheKey : chunk) {
+                        connection.stringCommands().set(redisKey(cacheKey).getBytes(StandardCharsets.UTF_8),
+                                valueSerializer.serialize(envelopes.get(cacheKey)), expiration, SetOption.upsert());
+                    }
+                    return null;
+                });
+            }
+        }
+        for (Map.Entry<String, CacheEnvelope> entry : envelopes.entrySet()) {
+            storeLocal(entry.getKey(), entry.getValue());
+        }
+        invalidationBus.publishEvict(name, envelopes.keySet());
+    }
+
+    /**
+     * 按 batchSize 切分 key；Cluster 模式下先按 slot 分组，保证每组 key 位于同一 slot
+     */
+    private List<List<String>> partition(Collection<String> cacheKeys) {
+        List<List<String>> chunks = new ArrayList<List<String>>();
+        if (clusterSlotAware) {
+            Map<Integer, List<String>> bySlot = new TreeMap<Integer, List<String>>();
+            for (String cacheKey : cacheKeys) {
+                bySlot.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(redisKey(cacheKey)), k -> new ArrayList<String>()).add(cacheKey);
+            }
+            for (List<String> group : bySlot.values()) {
+                split(group, chunks);
+            }
+        } else {
+            split(new ArrayList<String>(cacheKeys), chunks);
+        }
+        return chunks;
+    }
+
+    private void split(List<String> keys, List<List<String>> chunks) {
+        for (int from = 0; from < keys.size(); from += batchSize) {
+            chunks.add(keys.subList(from, Math.min(from + batchSize, keys.size())));
+        }
+    }
+
+    /**
+     * 只失效本地 L1，用于处理其他节点的失效通知
+     * @param cacheKey 缓存key
+     */
+    public void evictLocal(String cacheKey) {
+        if (l1 != null) {
+            l1.invalidate(cacheKey);
+        }
+        if (hotCache != null) {
+            hotCache.invalidate(cacheKey);
+        }
+        if (offHeapStore != null) {
+            offHeapStore.remove(cacheKey);
+        }
+    }
+
+    /**
+     * 导出 L1 中未过期的条目，用于停机快照
+     * @param maxEntries 最大条数
+     * @return 缓存key 与 CacheEnvelope
+     */
+    public Map<String, CacheEnvelope> snapshotLocal(int maxEntries) {
+        Map<String, CacheEnvelope> snapshot = new LinkedHashMap<String, CacheEnvelope>();
+        if (l1 == null) {
+            return snapshot;
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, CacheEnvelope> entry : l1.asMap().entrySet()) {
+            if (snapshot.size() >= maxEntries) {
+                break;
+            }
+            long expireAt = entry.getValue().getExpireAtMillis();
+            if (expireAt == 0 || expireAt > now) {
+                snapshot.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 只写入本地 L1，不写堆外缓存与 Redis、不广播，用于从快照恢复
+     * @param cacheKey 缓存key
+     * @param envelope CacheEnvelope
+     */
+    public void putLocal(String cacheKey, CacheEnvelope envelope) {
+        if (l1 != null) {
+            l1.put(cacheKey, envelope);
+        }
+    }
+
+    /**
+     * 按 key 批量读取 Redis 中的当前值写入本地 L1，用于从快照恢复
+     * Redis 中已不存在的 key 直接丢弃，停机期间发生的失效不会被快照带回
+     * @param cacheKeys 缓存key
+     * @return 恢复条数
+     */
+    public int restoreLocal(Collection<String> cacheKeys) {
+        if (l1 == null || cacheKeys.isEmpty()) {
+            return 0;
+        }
+        int restored = 0;
+        for (List<String> chunk : partition(cacheKeys)) {
+            List<String> redisKeys = new ArrayList<String>(chunk.size());
+            for (String cacheKey : chunk) {
+                redisKeys.add(redisKey(cacheKey));
+            }
+            List<Object> values = redisTemplate.opsForValue().multiGet(redisKeys);
+            if (values == null) {
+                continue;
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                Object value = values.get(i);
+                if (value instanceof CacheEnvelope) {
+                    putLocal(chunk.get(i), (CacheEnvelope) value);
+                    restored++;
+                }
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * 只清空本地 L1
+     */
+    public void clearLocal() {
+        if (l1 != null) {
+            l1.invalidateAll();
+        }
+        if (hotCache != null) {
+            hotCache.invalidateAll();
+        }
+        if (offHeapStore != null) {
+            offHeapStore.clear();
+        }
+    }
+
+    /**
+     * 单飞回源：同一 key 同时只有一个线程执行 valueLoader
+     * @return store value，valueLoader 返回 null 且不缓存 null 时为null
+     */
+    private Object loadSingleFlight(String cacheKey, Object key, Callable<?> valueLoader, WritePolicy policy) {
+        CompletableFuture<Object> future = new CompletableFuture<Object>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(cacheKey, future);
+        if (existing != null) {
+            return await(existing, key, valueLoader);
+        }
+        try {
+            // 抢到单飞后再查一次，避免刚完成的回源被重复执行
+            CacheEnvelope envelope = readEnvelope(cacheKey);
+            Object storeValue = envelope != null ? envelope.getValue() : loadWithLease(cacheKey, key, valueLoader, policy);
+            future.complete(storeValue);
+            return storeValue;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, future);
+        }
+    }
+
+    private Object loadWithLease(String cacheKey, Object key, Callable<?> valueLoader, WritePolicy policy) {
+        Duration leaseTime = spec.getLeaseTime();
+        if (!isPositive(leaseTime)) {
+            return loadAndStore(cacheKey, key, valueLoader, policy);
+        }
+        String leaseKey = redisKey(cacheKey) + LEASE_SUFFIX;
+        boolean leased = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(leaseKey, Boolean.TRUE, leaseTime));
+        if (!leased) {
+            long deadline = System.nanoTime() + leaseTime.toNanos();
+            while (System.nanoTime() < deadline) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(LEASE_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                CacheEnvelope envelope = readL2(cacheKey);
+                if (envelope != null) {
+                    storeLocal(cacheKey, envelope);
+                    return envelope.getValue();
+                }
+            }
+            logger.debug("等待缓存租约超时，自行回源，cache: [{}]，key: [{}]", name, cacheKey);
+        }
+        try {
+            return loadAndStore(cacheKey, key, valueLoader, policy);
+        } finally {
+            if (leased) {
+                redisTemplate.delete(leaseKey);
+            }
+        }
+    }
+
+    private Object loadAndStore(String cacheKey, Object key, Callable<?> valueLoader, WritePolicy policy) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long deltaMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (value == null) {
+            if (!policy.cacheNull) {
+                return null;
+            }
+            writeEnvelope(cacheKey, NullValue.INSTANCE, deltaMillis, policy.nullTtl);
+            return NullValue.INSTANCE;
+        }
+        writeEnvelope(cacheKey, value, deltaMillis, policy.ttl);
+        return value;
+    }
+
+    private Object await(CompletableFuture<Object> future, Object key, Callable<?> valueLoader) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    /**
+     * XFetch：now - delta * beta * ln(rand) >= expiry 时提前刷新，回源越慢、越接近过期，刷新概率越高
+     */
+    private boolean shouldRefreshEarly(CacheEnvelope envelope) {
+        double beta = spec.getEarlyRefreshBeta() != null ? spec.getEarlyRefreshBeta() : 0;
+        if (beta <= 0 || envelope.getExpireAtMillis() <= 0 || envelope.getDeltaMillis() <= 0) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return System.currentTimeMillis() - envelope.getDeltaMillis() * beta * Math.log(random) >= envelope.getExpireAtMillis();
+    }
+
+    private void refreshAsync(String cacheKey, Object key, Callable<?> valueLoader, WritePolicy policy) {
+        CompletableFuture<Object> future = new CompletableFuture<Object>();
+        if (inFlight.putIfAbsent(cacheKey, future) != null) {
+            return;
+        }
+        REFRESH_EXECUTOR.execute(() -> {
+            try {
+                future.complete(loadAndStore(cacheKey, key, valueLoader, policy));
+            } catch (RuntimeException e) {
+                logger.warn("缓存提前刷新失败，cache: [{}]，key: [{}]，错误: {}", name, cacheKey, e.getMessage());
+                future.completeExceptionally(e);
+            } finally {
+                inFlight.remove(cacheKey, future);
+            }
+        });
+    }
+
+    private CacheEnvelope readEnvelope(String cacheKey) {
+        CacheEnvelope envelope = readLocal(cacheKey);
+        if (envelope != null) {
+            return envelope;
+        }
+        envelope = readL2(cacheKey);
+        afterRemoteRead(cacheKey, envelope);
+        return envelope;
+    }
+
+    private CacheEnvelope readLocal(String cacheKey) {
+        CacheEnvelope envelope = l1 != null ? l1.getIfPresent(cacheKey) : null;
+        if (envelope == null && hotCache != null) {
+            envelope = hotCache.getIfPresent(cacheKey);
+        }
+        if (envelope == null && offHeapStore != null && offHeapReadable) {
+            envelope = readOffHeap(cacheKey);
+            if (envelope != null && l1 != null) {
+                l1.put(cacheKey, envelope);
+            }
+        }
+        // 本地命中同样采样，持续访问的热点不断续期；热点缓存已有的条目不覆盖，仍按 localTtl 过期后回源
+        if (envelope != null && hotKeyDetector != null && hotKeyDetector.recordLocalHit(name, cacheKey)) {
+            hotCache.asMap().putIfAbsent(cacheKey, envelope);
+        }
+        return envelope;
+    }
+
+    private CacheEnvelope readOffHeap(String cacheKey) {
+        byte[] bytes = offHeapStore.get(cacheKey);
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            Object value = offHeapSerializer.deserialize(bytes);
+            return value instanceof CacheEnvelope ? (CacheEnvelope) value : null;
+        } catch (Exception e) {
+            // 序列化格式变更后的旧条目
+            offHeapStore.remove(cacheKey);
+            logger.debug("堆外缓存条目反序列化失败，cache: [{}]，key: [{}]，错误: {}", name, cacheKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private void putOffHeap(String cacheKey, CacheEnvelope envelope) {
+        if (offHeapStore == null) {
+            return;
+        }
+        long expireAt = envelope.getExpireAtMillis();
+        if (offHeapTtlMillis > 0) {
+            long localExpireAt = System.currentTimeMillis() + offHeapTtlMillis;
+            expireAt = expireAt > 0 ? Math.min(expireAt, localExpireAt) : localExpireAt;
+        }
+        if (!offHeapStore.put(cacheKey, offHeapSerializer.serialize(envelope), expireAt)) {
+            logger.debug("缓存值过大，不写入堆外缓存，cache: [{}]，key: [{}]", name, cacheKey);
+        }
+    }
+
+    /**
+     * L2 读取后写入 L1，并交给热点探测器采样，热点 key 写入热点缓存
+     */
+    private void afterRemoteRead(String cacheKey, CacheEnvelope envelope) {
+        if (envelope != null) {
+            if (l1 != null) {
+                l1.put(cacheKey, envelope);
+            }
+            putOffHeap(cacheKey, envelope);
+        }
+        if (hotKeyDetector != null && hotKeyDetector.recordAccess(name, cacheKey) && envelope != null) {
+            hotCache.put(cacheKey, envelope);
+        }
+    }
+
+    /**
+     * 本节点写入后更新 L1；热点缓存中已有的 key 同步替换
+     */
+    private void storeLocal(String cacheKey, CacheEnvelope envelope) {
+        if (l1 != null) {
+            l1.put(cacheKey, envelope);
+        }
+        putOffHeap(cacheKey, envelope);
+        if (hotCache != null) {
+            hotCache.asMap().computeIfPresent(cacheKey, (k, v) -> envelope);
+        }
+    }
+
+    private CacheEnvelope readL2(String cacheKey) {
+        Object value = redisTemplate.opsForValue().get(redisKey(cacheKey));
+        if (value == null || value instanceof CacheEnvelope) {
+            return (CacheEnvelope) value;
+        }
+        // 兼容直接写入 Redis 的裸值
+        return new CacheEnvelope(value, 0, 0);
+    }
+
+    private void writeEnvelope(String cacheKey, Object storeValue, long deltaMillis, Duration ttl) {
+        CacheEnvelope envelope = newEnvelope(storeValue, deltaMillis, ttl);
+        if (isPositive(ttl)) {
+            redisTemplate.opsForValue().set(redisKey(cacheKey), envelope, ttl);
+        } else {
+            redisTemplate.opsForValue().set(redisKey(cacheKey), envelope);
+        }
+        storeLocal(cacheKey, envelope);
+        invalidationBus.publishEvict(name, cacheKey);
+    }
+
+    private CacheEnvelope newEnvelope(Object storeValue, long deltaMillis, Duration ttl) {
+        long expireAt = isPositive(ttl) ? System.currentTimeMillis() + ttl.toMillis() : 0;
+        return new CacheEnvelope(storeValue, deltaMillis, expireAt);
+    }
+
+    private WritePolicy policy(Duration ttl, boolean cacheNull, Duration nullTtl) {
+        Duration valueTtl = ttl != null ? ttl : spec.getTtl();
+        return new WritePolicy(valueTtl, cacheNull, nullTtl != null ? nullTtl : valueTtl);
+    }
+
+    /**
+     * 回源结果的写入策略
+     */
+    private static class WritePolicy {
+
+        private final Duration ttl;
+        private final boolean cacheNull;
+        private final Duration nullTtl;
+
+        WritePolicy(Duration ttl, boolean cacheNull, Duration nullTtl) {
+            this.ttl = ttl;
+            this.cacheNull = cacheNull;
+            this.nullTtl = nullTtl;
+        }
+    }
+
+    /**
+     * 本地缓存（L1、热点缓存）的过期策略：取本地 TTL 与 CacheEnvelope 剩余有效期中较小的一个，
+     * Redis 中的 key 过期时不会广播失效通知，本地条目须按同一时间点失效
+     */
+    private static class EnvelopeExpiry implements Expiry<String, CacheEnvelope> {
+
+        private final long localTtlNanos;
+
+        EnvelopeExpiry(Duration localTtl) {
+            this.localTtlNanos = isPositive(localTtl) ? localTtl.toNanos() : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, CacheEnvelope envelope, long currentTime) {
+            return remainingNanos(envelope);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CacheEnvelope envelope, long currentTime, long currentDuration) {
+            return remainingNanos(envelope);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CacheEnvelope envelope, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private long remainingNanos(CacheEnvelope envelope) {
+            long expireAt = envelope.getExpireAtMillis();
+            if (expireAt <= 0) {
+                return localTtlNanos;
+            }
+            long remaining = TimeUnit.MILLISECONDS.toNanos(Math.max(0, expireAt - System.currentTimeMillis()));
+            return Math.min(localTtlNanos, remaining);
+        }
+    }
+
+    protected String toCacheKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    protected String redisKey(String cacheKey) {
+        return redisKeyPrefix + cacheKey;
+    }
+
+    private static boolean isPositive(Duration duration) {
+        return duration != null && !duration.isZero() && !duration.isNegative();
+    }
+}
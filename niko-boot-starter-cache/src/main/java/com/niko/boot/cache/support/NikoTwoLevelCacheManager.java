@@ -0,0 +1,141 @@
+package com.niko.boot.cache.support;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.niko.boot.cache.NikoCacheProperties;
+import com.niko.boot.cache.NikoCacheProperties.CacheSpec;
+import com.niko.boot.cache.hotkey.HotKeyDetector;
+import com.niko.boot.cache.offheap.OffHeapStore;
+
+/**
+ * 两级缓存管理器
+ * 按名称懒创建 NikoTwoLevelCache，配置取 niko.cache.caches.{name}，未配置时取 niko.cache.defaults
+ * 映射文件恢复了记录的堆外缓存在后台与 Redis 比对，销毁时关闭堆外缓存（映射文件刷盘）
+ */
+public class NikoTwoLevelCacheManager implements CacheManager, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(NikoTwoLevelCacheManager.class);
+
+    private final NikoCacheProperties properties;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final HotKeyDetector hotKeyDetector;
+    private final Map<String, NikoTwoLevelCache> caches = new ConcurrentHashMap<String, NikoTwoLevelCache>();
+
+    public NikoTwoLevelCacheManager(NikoCacheProperties properties, RedisTemplate<String, Object> redisTemplate, CacheInvalidationBus invalidationBus) {
+        this(properties, redisTemplate, invalidationBus, null);
+    }
+
+    /**
+     * @param hotKeyDetector 热点探测器，为null时不启用热点本地缓存
+     */
+    public NikoTwoLevelCacheManager(NikoCacheProperties properties, RedisTemplate<String, Object> redisTemplate, CacheInvalidationBus invalidationBus,
+            HotKeyDetector hotKeyDetector) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.invalidationBus = invalidationBus;
+        this.hotKeyDetector = hotKeyDetector;
+        invalidationBus.setHandler(this::onRemoteInvalidation);
+        for (String name : properties.getCaches().keySet()) {
+            getCache(name);
+        }
+    }
+
+    @Override
+    public NikoTwoLevelCache getCache(String name) {
+        NikoTwoLevelCache cache = caches.get(name);
+        if (cache == null) {
+            cache = caches.computeIfAbsent(name, this::createCache);
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * 已创建的缓存
+     * @return Collection
+     */
+    public Collection<NikoTwoLevelCache> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+
+    @Override
+    public void destroy() {
+        for (NikoTwoLevelCache cache : caches.values()) {
+            OffHeapStore offHeapStore = cache.getOffHeapStore();
+            if (offHeapStore == null) {
+                continue;
+            }
+            try {
+                offHeapStore.close();
+            } catch (IOException e) {
+                logger.warn("堆外缓存关闭失败，cache: [{}]，错误: {}", cache.getName(), e.getMessage());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected NikoTwoLevelCache createCache(String name) {
+        CacheSpec spec = properties.resolve(name);
+        NikoTwoLevelCache cache = new NikoTwoLevelCache(name, properties.getKeyPrefix(), spec, redisTemplate, invalidationBus);
+        cache.setBatchSize(properties.getBatchSize());
+        cache.setClusterSlotAware(properties.isClusterSlotAware());
+        if (hotKeyDetector != null) {
+            cache.setHotKeyDetector(hotKeyDetector);
+        }
+        if (spec.getOffHeapCapacity() != null && spec.getOffHeapCapacity().toBytes() > 0) {
+            cache.setOffHeapStore(createOffHeapStore(name, spec), (RedisSerializer<Object>) redisTemplate.getValueSerializer(), spec.getOffHeapTtl());
+            if (cache.isOffHeapValidationPending()) {
+                Thread.ofVirtual().name("niko-offheap-validate-" + name).start(() -> validateOffHeap(cache));
+            }
+        }
+        return cache;
+    }
+
+    private OffHeapStore createOffHeapStore(String name, CacheSpec spec) {
+        String directory = properties.getOffHeapDirectory();
+        Path file = directory == null || directory.isEmpty() ? null : Paths.get(directory, name + ".offheap");
+        try {
+            return new OffHeapStore(spec.getOffHeapCapacity().toBytes(), spec.getOffHeapSegments(), file);
+        } catch (IOException e) {
+            throw new IllegalStateException("堆外缓存创建失败，cache: [" + name + "]", e);
+        }
+    }
+
+    private void validateOffHeap(NikoTwoLevelCache cache) {
+        long start = System.currentTimeMillis();
+        long restored = cache.getOffHeapStore().size();
+        int removed = cache.validateOffHeap();
+        logger.info("堆外缓存恢复记录比对完成，cache: [{}]，恢复 {} 条，删除 {} 条，耗时 {} ms", cache.getName(), restored, removed,
+                System.currentTimeMillis() - start);
+    }
+
+    private void onRemoteInvalidation(String cacheName, String cacheKey) {
+        NikoTwoLevelCache cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (cacheKey == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(cacheKey);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.niko.boot.cache.util;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * 缓存 key 表达式解析工具类
+ * 表达式按方法与表达式文本解析一次并缓存，SpEL 以 MIXED 模式运行，热点方法的表达式会被编译为字节码
+ * 参数名同样按方法缓存，避免每次调用读取字节码
+ *
+ * <p>支持的表达式格式与 RedissonLock 的 lockKey 一致：</p>
+ * <ul>
+ *   <li>普通字符串：{@code "config"}</li>
+ *   <li>完整 SpEL 表达式：{@code "#{#key}"}</li>
+ *   <li>混合表达式：{@code "order:#{#orderId}"}</li>
+ *   <li>嵌套属性：{@code "#{#order.id}"}</li>
+ *   <li>参数索引：{@code "#{#p0}"} 或 {@code "#{#a0}"}</li>
+ * </ul>
+ */
+public class CacheKeyExpressionParser {
+
+    private static final SpelExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, CacheKeyExpressionParser.class.getClassLoader()));
+    private static final TemplateParserContext templateContext = new TemplateParserContext("#{", "}");
+    private static final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private static final Map<Method, Map<String, CompiledKey>> compiledKeys = new ConcurrentHashMap<Method, Map<String, CompiledKey>>();
+
+    /**
+     * 生成缓存 key
+     *
+     * @param expression key 表达式，为空时按全部参数生成
+     * @param method 被拦截的方法
+     * @param args 方法参数值
+     * @return 缓存 key
+     */
+    public static Object generateKey(String expression, Method method, Object[] args) {
+        String source = expression != null ? expression : "";
+        CompiledKey compiledKey = compiledKeys.computeIfAbsent(method, m -> new ConcurrentHashMap<String, CompiledKey>())
+                .computeIfAbsent(source, e -> compile(e, method));
+        if (compiledKey.expression == null) {
+            return compiledKey.literal != null ? compiledKey.literal : SimpleKeyGenerator.generateKey(args);
+        }
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        if (args != null) {
+            for (int i = 0; i < args.length; i++) {
+                context.setVariable("p" + i, args[i]);
+                context.setVariable("a" + i, args[i]);
+                String paramName = i < compiledKey.parameterNames.length ? compiledKey.parameterNames[i] : null;
+                if (paramName != null) {
+                    context.setVariable(paramName, args[i]);
+                }
+            }
+        }
+        return compiledKey.expression.getValue(context, String.class);
+    }
+
+    private static CompiledKey compile(String expression, Method method) {
+        if (expression == null || expression.isEmpty()) {
+            return new CompiledKey(null, null, null);
+        }
+        // 不包含 SpEL 语法时直接作为固定 key
+        if (!expression.contains("#{")) {
+            return new CompiledKey(null, expression, null);
+        }
+        String[] names = parameterNameDiscoverer.getParameterNames(method);
+        String[] parameterNames = new String[names != null ? names.length : 0];
+        for (int i = 0; i < parameterNames.length; i++) {
+            if (names[i] != null && !names[i].matches("arg\\d+")) {
+                parameterNames[i] = names[i];
+            }
+        }
+        try {
+            return new CompiledKey(parser.parseExpression(expression, templateContext), null, parameterNames);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("缓存key表达式解析失败: " + expression + "，方法: " + method, e);
+        }
+    }
+
+    private static class CompiledKey {
+
+        private final Expression expression;
+        private final String literal;
+        private final String[] parameterNames;
+
+        CompiledKey(Expression expression, String literal, String[] parameterNames) {
+            this.expression = expression;
+            this.literal = literal;
+            this.parameterNames = parameterNames;
+        }
+    }
+}
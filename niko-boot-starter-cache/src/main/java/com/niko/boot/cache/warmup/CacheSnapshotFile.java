@@ -0,0 +1,138 @@
+package com.niko.boot.cache.warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.niko.boot.cache.support.CacheEnvelope;
+import com.niko.boot.cache.support.NikoTwoLevelCache;
+
+/**
+ * L1 快照文件
+ * 停机时导出各缓存 L1 中未过期的条目，启动时按其中的 key 批量从 Redis 读取当前值写回 L1，新实例无需逐个回源即可命中
+ * 快照中的值只用于判断是否过期，不直接写回，停机期间其他节点发布的失效不会被带回
+ * 格式：魔数、版本、写入时间，随后按缓存依次写入 名称、条数、[key 长度、key、值长度、值]，值以缓存序列化器编码
+ * 先写临时文件再原子替换，进程中途退出不会留下损坏的快照
+ */
+public class CacheSnapshotFile {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheSnapshotFile.class);
+
+    private static final int MAGIC = 0x4e4b4353;
+    private static final int VERSION = 1;
+
+    private final Path path;
+    private final RedisSerializer<Object> serializer;
+
+    public CacheSnapshotFile(Path path, RedisSerializer<Object> serializer) {
+        this.path = path;
+        this.serializer = serializer;
+    }
+
+    /**
+     * 写入快照
+     * @param caches 缓存
+     * @param maxEntries 每个缓存的最大条数
+     * @return 写入条数
+     * @throws IOException 写入失败
+     */
+    public int write(Collection<NikoTwoLevelCache> caches, int maxEntries) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        int total = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(caches.size());
+            for (NikoTwoLevelCache cache : caches) {
+                Map<String, CacheEnvelope> entries = cache.snapshotLocal(maxEntries);
+                out.writeUTF(cache.getName());
+                out.writeInt(entries.size());
+                for (Map.Entry<String, CacheEnvelope> entry : entries.entrySet()) {
+                    byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                    byte[] bytes = serializer.serialize(entry.getValue());
+                    out.writeInt(key.length);
+                    out.write(key);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                total += entries.size();
+            }
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return total;
+    }
+
+    /**
+     * 读取快照，按未过期的 key 从 Redis 批量读取当前值写回 L1
+     * @param cacheResolver 按名称获取缓存
+     * @param maxAgeMillis 快照最大年龄，超过时忽略
+     * @return 恢复条数
+     * @throws IOException 读取失败
+     */
+    public int read(Function<String, NikoTwoLevelCache> cacheResolver, long maxAgeMillis) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return 0;
+        }
+        int restored = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.warn("缓存快照格式不匹配，忽略: {}", path);
+                return 0;
+            }
+            long writtenAt = in.readLong();
+            long now = System.currentTimeMillis();
+            if (now - writtenAt > maxAgeMillis) {
+                logger.info("缓存快照已超过 {} ms，忽略: {}", maxAgeMillis, path);
+                return 0;
+            }
+            int cacheCount = in.readInt();
+            for (int i = 0; i < cacheCount; i++) {
+                NikoTwoLevelCache cache = cacheResolver.apply(in.readUTF());
+                int entryCount = in.readInt();
+                List<String> cacheKeys = new ArrayList<String>(entryCount);
+                for (int j = 0; j < entryCount; j++) {
+                    byte[] key = new byte[in.readInt()];
+                    in.readFully(key);
+                    String cacheKey = new String(key, StandardCharsets.UTF_8);
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    Object value = serializer.deserialize(bytes);
+                    if (!(value instanceof CacheEnvelope)) {
+                        continue;
+                    }
+                    CacheEnvelope envelope = (CacheEnvelope) value;
+                    if (envelope.getExpireAtMillis() == 0 || envelope.getExpireAtMillis() > now) {
+                        cacheKeys.add(cacheKey);
+                    }
+                }
+                restored += cache.restoreLocal(cacheKeys);
+            }
+        }
+        return restored;
+    }
+}
@@ -0,0 +1,184 @@
+package com.niko.boot.cache.warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import com.niko.boot.cache.NikoCacheProperties;
+import com.niko.boot.cache.support.NikoTwoLevelCache;
+import com.niko.boot.cache.support.NikoTwoLevelCacheManager;
+
+/**
+ * 缓存预热
+ * 作为 ApplicationRunner 在应用就绪（ReadinessState.ACCEPTING_TRAFFIC）之前执行，预热完成或超时后才对外提供服务：
+ * <ol>
+ *   <li>读取上次停机写入的 L1 快照（配置了 snapshot-file 时），按其中的 key 从 Redis 批量读取当前值写回 L1</li>
+ *   <li>CacheWarmupSource 与 niko.cache.warmup.keys 的 key 按 batchSize 分批，以 parallelism 为并发上限并行执行；
+ *       每批先 MGET 读取 Redis，未命中的 key 才回源，滚动发布时新实例基本不访问数据库</li>
+ * </ol>
+ * 停机时导出 L1 快照
+ */
+public class CacheWarmupRunner implements ApplicationRunner, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupRunner.class);
+
+    private final NikoCacheProperties.Warmup config;
+    private final NikoTwoLevelCacheManager cacheManager;
+    private final List<CacheWarmupSource<?>> sources;
+    private final CacheSnapshotFile snapshotFile;
+    private final LongAdder warmedKeys = new LongAdder();
+    private final LongAdder loadedKeys = new LongAdder();
+
+    /**
+     * @param snapshotFile 快照文件，为null时不读写快照
+     */
+    public CacheWarmupRunner(NikoCacheProperties.Warmup config, NikoTwoLevelCacheManager cacheManager, List<CacheWarmupSource<?>> sources,
+            CacheSnapshotFile snapshotFile) {
+        this.config = config;
+        this.cacheManager = cacheManager;
+        this.sources = sources;
+        this.snapshotFile = snapshotFile;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        int restored = restoreSnapshot();
+        Semaphore permits = new Semaphore(config.getParallelism());
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        try {
+            for (CacheWarmupSource<?> source : sources) {
+                submit(executor, permits, futures, source);
+            }
+            for (Map.Entry<String, List<String>> entry : config.getKeys().entrySet()) {
+                NikoTwoLevelCache cache = cacheManager.getCache(entry.getKey());
+                for (List<String> chunk : partition(entry.getValue())) {
+                    futures.add(executor.submit(() -> withPermit(permits, () -> {
+                        cache.getAll(chunk);
+                        warmedKeys.add(chunk.size());
+                    })));
+                }
+            }
+            await(futures, start + config.getTimeout().toMillis());
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("缓存预热完成，耗时 {} ms，快照恢复 {} 条，预热 key {} 个，其中回源 {} 个",
+                System.currentTimeMillis() - start, restored, warmedKeys.sum(), loadedKeys.sum());
+    }
+
+    @Override
+    public void destroy() {
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            int written = snapshotFile.write(cacheManager.getCaches(), config.getSnapshotMaxEntries());
+            logger.info("缓存快照已写入 {} 条", written);
+        } catch (Exception e) {
+            logger.warn("缓存快照写入失败: {}", e.getMessage());
+        }
+    }
+
+    private int restoreSnapshot() {
+        if (snapshotFile == null) {
+            return 0;
+        }
+        try {
+            return snapshotFile.read(cacheManager::getCache, config.getSnapshotMaxAge().toMillis());
+        } catch (Exception e) {
+            logger.warn("缓存快照读取失败，跳过: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private <K> void submit(ExecutorService executor, Semaphore permits, List<Future<?>> futures, CacheWarmupSource<K> source) {
+        Collection<K> keys;
+        try {
+            keys = source.getKeys();
+        } catch (Exception e) {
+            logger.error("缓存预热读取 key 失败，cache: [{}]", source.getCacheName(), e);
+            return;
+        }
+        NikoTwoLevelCache cache = cacheManager.getCache(source.getCacheName());
+        for (List<K> chunk : partition(keys)) {
+            futures.add(executor.submit(() -> withPermit(permits, () -> warm(cache, source, chunk))));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K> void warm(NikoTwoLevelCache cache, CacheWarmupSource<K> source, List<K> chunk) {
+        cache.getAll(chunk, missing -> {
+            try {
+                Map<K, ?> loaded = source.load(missing);
+                loadedKeys.add(loaded.size());
+                return (Map<K, Object>) loaded;
+            } catch (Exception e) {
+                throw new IllegalStateException("缓存预热回源失败，cache: [" + source.getCacheName() + "]", e);
+            }
+        });
+        warmedKeys.add(chunk.size());
+    }
+
+    private void withPermit(Semaphore permits, Runnable task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            task.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void await(List<Future<?>> futures, long deadline) {
+        for (Future<?> future : futures) {
+            try {
+                future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                logger.warn("缓存预热超过 {}，未完成的批次取消", config.getTimeout());
+                return;
+            } catch (ExecutionException e) {
+                logger.warn("缓存预热批次失败: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private <K> List<List<K>> partition(Collection<K> keys) {
+        List<List<K>> chunks = new ArrayList<List<K>>();
+        List<K> chunk = new ArrayList<K>(config.getBatchSize());
+        for (K key : keys) {
+            chunk.add(key);
+            if (chunk.size() == config.getBatchSize()) {
+                chunks.add(chunk);
+                chunk = new ArrayList<K>(config.getBatchSize());
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
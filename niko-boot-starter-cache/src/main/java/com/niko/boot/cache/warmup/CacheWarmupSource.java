@@ -0,0 +1,59 @@
+package com.niko.boot.cache.warmup;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 缓存预热数据源
+ * 注册为 Spring Bean 后在启动阶段（就绪之前）执行：getKeys 返回的 key 按批并行预热，
+ * 每批先从 Redis 批量读取，Redis 也未命中的 key 才调用 load 回源并写入两级缓存
+ *
+ * <p>使用示例（BaseDao 查询热门商品）：</p>
+ * <pre>{@code
+ * @Component
+ * public class ProductWarmupSource implements CacheWarmupSource<Long> {
+ *
+ *     @Autowired
+ *     private ProductDao productDao;
+ *
+ *     public String getCacheName() {
+ *         return "product";
+ *     }
+ *
+ *     public Collection<Long> getKeys() {
+ *         return productDao.query("queryHotIds", Map.of("limit", 10000));
+ *     }
+ *
+ *     public Map<Long, ?> load(Set<Long> ids) {
+ *         List<Product> products = productDao.query("queryByIds", Map.of("ids", ids));
+ *         return products.stream().collect(Collectors.toMap(Product::getId, p -> p));
+ *     }
+ * }
+ * }</pre>
+ *
+ * @param <K> key 类型
+ */
+public interface CacheWarmupSource<K> {
+
+    /**
+     * 缓存名称
+     * @return 名称
+     */
+    String getCacheName();
+
+    /**
+     * 需要预热的 key
+     * @return key
+     * @throws Exception 读取失败
+     */
+    Collection<K> getKeys() throws Exception;
+
+    /**
+     * 批量回源
+     * @param keys Redis 未命中的 key
+     * @return key 与值，未返回的 key 不缓存
+     * @throws Exception 回源失败
+     */
+    Map<K, ?> load(Set<K> keys) throws Exception;
+}
@@ -0,0 +1,348 @@
+package com.niko.boot.cache.writebehind;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 写回（write-behind）缓冲
+ * write 立即写入缓存并记入缓冲，同一 key 的多次写入按 merge 函数合并，
+ * 按 flushInterval 定时或缓冲 key 数达到 batchSize 时由后台线程分批交给 WriteBehindWriter 落库，
+ * 热点行的数据库写入次数从每次更新一次降为每个刷新周期一次
+ *
+ * <p>内存上限：缓冲 key 数达到 maxPendingKeys 时，写入线程同步执行一次刷新后再写入（背压）</p>
+ * <p>停机保证：作为 Spring Bean 注册时，销毁阶段停止定时任务并刷新剩余数据；
+ * Bean 依赖 DAO，销毁顺序先于数据源</p>
+ *
+ * <p>使用示例（文章阅读数，缓存保存累计值，数据库累加增量）：</p>
+ * <pre>{@code
+ * @Bean
+ * public WriteBehindBuffer<Long, Long> articleViewBuffer(ArticleDao articleDao, TransactionTemplate transactionTemplate) {
+ *     // 整批在一个事务内落库：失败时全部回滚后放回缓冲，Long::sum 合并重试时不会重复累加
+ *     return WriteBehindBuffer.<Long, Long>builder("article-view", batch -> transactionTemplate.executeWithoutResult(
+ *                     status -> articleDao.modifyBatch("incrViews", toParams(batch), 500)))
+ *             .merge(Long::sum)
+ *             .flushInterval(Duration.ofSeconds(5))
+ *             .build();
+ * }
+ *
+ * articleViewBuffer.write(articleId, 1L);
+ * }</pre>
+ *
+ * @param <K> key 类型
+ * @param <V> 值类型
+ */
+public class WriteBehindBuffer<K, V> implements MeterBinder, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    private final String name;
+    private final WriteBehindWriter<K, V> writer;
+    private final BinaryOperator<V> mergeFunction;
+    private final Cache cache;
+    private final int batchSize;
+    private final int maxPendingKeys;
+    private final ScheduledExecutorService scheduler;
+
+    /** 写入取读锁，刷新交换缓冲时取写锁 */
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    /** 同时只有一个线程执行落库，保证同一 key 的批次按顺序写入 */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private volatile ConcurrentHashMap<K, V> pending = new ConcurrentHashMap<K, V>();
+    private volatile boolean closed;
+
+    private WriteBehindBuffer(Builder<K, V> builder) {
+        this.name = builder.name;
+        this.writer = builder.writer;
+        this.mergeFunction = builder.mergeFunction;
+        this.cache = builder.cache;
+        this.batchSize = builder.batchSize;
+        this.maxPendingKeys = builder.maxPendingKeys;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "niko-write-behind-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = builder.flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 创建构建器
+     * @param name 名称，用于线程名、日志与指标
+     * @param writer 落库函数
+     * @return Builder
+     */
+    public static <K, V> Builder<K, V> builder(String name, WriteBehindWriter<K, V> writer) {
+        return new Builder<K, V>(name, writer);
+    }
+
+    /**
+     * 写入
+     * 配置了缓存时 value 立即写入缓存；缓冲中与同一 key 的未落库值合并
+     * @param key key
+     * @param value 值
+     */
+    public void write(K key, V value) {
+        write(key, value, value);
+    }
+
+    /**
+     * 写入，缓存与缓冲分别使用不同的值（如缓存保存累计值，缓冲记录增量）
+     * @param key key
+     * @param value 记入缓冲的值
+     * @param cacheValue 写入缓存的值
+     */
+    public void write(K key, V value, Object cacheValue) {
+        if (closed) {
+            throw new IllegalStateException("写回缓冲 [" + name + "] 已关闭");
+        }
+        if (pending.size() >= maxPendingKeys) {
+            // 背压：缓冲已满时由写入线程同步刷新，刷新失败时本次写入不生效
+            flush();
+        }
+        if (cache != null) {
+            cache.put(key, cacheValue);
+        }
+        int size;
+        swapLock.readLock().lock();
+        try {
+            // destroy 持写锁设置 closed，持读锁复查后合并的数据一定在最后一次刷新之前进入缓冲
+            if (closed) {
+                throw new IllegalStateException("写回缓冲 [" + name + "] 已关闭");
+            }
+            pending.merge(key, value, mergeFunction);
+            size = pending.size();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        writes.increment();
+        if (size >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> {
+                    flushScheduled.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                // destroy 已停止定时任务，本次写入已在缓冲中，由 destroy 最后一次刷新落库
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * 立即刷新缓冲中的全部数据
+     * 落库失败时失败批次重新放回缓冲并抛出异常
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<K, V> drained = drain();
+            if (drained.isEmpty()) {
+                return;
+            }
+            List<K> keys = new ArrayList<K>(drained.keySet());
+            for (int from = 0; from < keys.size(); from += batchSize) {
+                Map<K, V> batch = new LinkedHashMap<K, V>();
+                for (K key : keys.subList(from, Math.min(from + batchSize, keys.size()))) {
+                    batch.put(key, drained.get(key));
+                }
+                try {
+                    writer.write(batch);
+                    flushedRows.add(batch.size());
+                } catch (Exception e) {
+                    failedBatches.increment();
+                    requeue(drained, keys.subList(from, keys.size()));
+                    throw new IllegalStateException("写回缓冲 [" + name + "] 落库失败，" + (keys.size() - from) + " 条数据已放回缓冲", e);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 缓冲中未落库的 key 数
+     * @return key 数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void destroy() {
+        swapLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        logger.info("写回缓冲 [{}] 已关闭，累计写入 {} 次，落库 {} 行", name, writes.sum(), flushedRows.sum());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("niko.cache.writebehind.pending", this, WriteBehindBuffer::getPendingCount)
+                .tag("name", name).register(registry);
+        FunctionCounter.builder("niko.cache.writebehind.writes", writes, LongAdder::doubleValue)
+                .tag("name", name).register(registry);
+        FunctionCounter.builder("niko.cache.writebehind.flushed", flushedRows, LongAdder::doubleValue)
+                .tag("name", name).register(registry);
+        FunctionCounter.builder("niko.cache.writebehind.failures", failedBatches, LongAdder::doubleValue)
+                .tag("name", name).register(registry);
+    }
+
+    private Map<K, V> drain() {
+        ConcurrentHashMap<K, V> drained;
+        swapLock.writeLock().lock();
+        try {
+            drained = pending;
+            if (drained.isEmpty()) {
+                return drained;
+            }
+            pending = new ConcurrentHashMap<K, V>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        return drained;
+    }
+
+    /**
+     * 失败的数据放回缓冲，旧值在前与期间的新写入合并
+     */
+    private void requeue(Map<K, V> drained, List<K> keys) {
+        swapLock.readLock().lock();
+        try {
+            for (K key : keys) {
+                V failed = drained.get(key);
+                pending.merge(key, failed, (newer, old) -> mergeFunction.apply(old, newer));
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("写回缓冲 [{}] 刷新失败，下次刷新重试", name, e);
+        }
+    }
+
+    /**
+     * WriteBehindBuffer 构建器
+     */
+    public static class Builder<K, V> {
+
+        private final String name;
+        private final WriteBehindWriter<K, V> writer;
+        private BinaryOperator<V> mergeFunction = (older, newer) -> newer;
+        private Cache cache;
+        private Duration flushInterval = Duration.ofSeconds(1);
+        private int batchSize = 500;
+        private int maxPendingKeys = 100000;
+
+        private Builder(String name, WriteBehindWriter<K, V> writer) {
+            this.name = name;
+            this.writer = writer;
+        }
+
+        /**
+         * 同一 key 未落库值的合并函数，默认保留最新值；计数类增量可使用 Long::sum
+         * @param mergeFunction 参数为 旧值、新值
+         * @return Builder
+         */
+        public Builder<K, V> merge(BinaryOperator<V> mergeFunction) {
+            this.mergeFunction = mergeFunction;
+            return this;
+        }
+
+        /**
+         * 写入时同步更新的缓存，如 NikoTwoLevelCache
+         * @param cache 缓存
+         * @return Builder
+         */
+        public Builder<K, V> cache(Cache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * 定时刷新间隔，默认 1 秒
+         * @param flushInterval 间隔
+         * @return Builder
+         */
+        public Builder<K, V> flushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        /**
+         * 每批落库的最大 key 数，缓冲 key 数达到该值时提前刷新，默认 500
+         * @param batchSize 批大小
+         * @return Builder
+         */
+        public Builder<K, V> batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * 缓冲的最大 key 数，达到后写入线程同步刷新，默认 100000
+         * @param maxPendingKeys 最大 key 数
+         * @return Builder
+         */
+        public Builder<K, V> maxPendingKeys(int maxPendingKeys) {
+            this.maxPendingKeys = maxPendingKeys;
+            return this;
+        }
+
+        public WriteBehindBuffer<K, V> build() {
+            if (batchSize <= 0 || maxPendingKeys < batchSize) {
+                throw new IllegalArgumentException("batchSize必须大于0且不大于maxPendingKeys");
+            }
+            if (flushInterval == null || flushInterval.isNegative() || flushInterval.isZero()) {
+                throw new IllegalArgumentException("flushInterval必须大于0");
+            }
+            return new WriteBehindBuffer<K, V>(this);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.niko.boot.cache.writebehind;
+
+import java.util.Map;
+
+/**
+ * 写回缓冲的落库函数
+ * 每次调用传入合并后的一批数据（同一 key 只出现一次），抛出异常时整批重新放回缓冲，下次刷新重试
+ * 实现必须整批成功或整批不生效（如在一个事务内执行）：部分写入后抛出异常时，已写入的数据会随重试再写一次，
+ * 累加型的合并函数（如 Long::sum）会因此重复计数
+ *
+ * <p>使用示例（BaseDao 批量更新，整批在一个事务内执行）：</p>
+ * <pre>{@code
+ * WriteBehindWriter<Long, ArticleStat> writer = batch -> transactionTemplate.executeWithoutResult(
+ *         status -> articleStatDao.modifyBatch("modifyStat", batch.values(), 500));
+ * }</pre>
+ *
+ * @param <K> key 类型
+ * @param <V> 值类型
+ */
+@FunctionalInterface
+public interface WriteBehindWriter<K, V> {
+
+    /**
+     * 写入一批数据
+     * @param batch key 与合并后的值
+     * @throws Exception 写入失败
+     */
+    void write(Map<K, V> batch) throws Exception;
+}
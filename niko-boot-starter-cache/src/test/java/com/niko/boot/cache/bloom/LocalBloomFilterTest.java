@@ -0,0 +1,68 @@
+package com.niko.boot.cache.bloom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LocalBloomFilterTest {
+
+    @Test
+    void noFalseNegatives() {
+        LocalBloomFilter filter = new LocalBloomFilter("user", 10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user:" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user:" + i), "user:" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateWithinConfiguredFpp() {
+        for (double fpp : new double[] { 0.01, 0.001 }) {
+            int expected = 100_000;
+            LocalBloomFilter filter = new LocalBloomFilter("order", expected, fpp);
+            for (int i = 0; i < expected; i++) {
+                filter.put(i);
+            }
+
+            int probes = 200_000;
+            int falsePositives = 0;
+            for (int i = expected; i < expected + probes; i++) {
+                if (filter.mightContain(i)) {
+                    falsePositives++;
+                }
+            }
+            double rate = (double) falsePositives / probes;
+            // 允许 50% 的统计波动
+            assertTrue(rate <= fpp * 1.5, "fpp=" + fpp + ", rate=" + rate);
+            assertTrue(filter.getCurrentFpp() <= fpp * 1.5, "fpp=" + fpp + ", current=" + filter.getCurrentFpp());
+        }
+    }
+
+    @Test
+    void putReportsChangedBits() {
+        LocalBloomFilter filter = new LocalBloomFilter("user", 1_000, 0.01);
+
+        assertTrue(filter.put("a"));
+        assertFalse(filter.put("a"));
+        // 同一元素的 k 个位置可能重合
+        assertTrue(filter.getBitCount() > 0 && filter.getBitCount() <= filter.getNumHashFunctions());
+    }
+
+    @Test
+    void approximateElementCount() {
+        LocalBloomFilter filter = new LocalBloomFilter("user", 100_000, 0.01);
+        for (int i = 0; i < 50_000; i++) {
+            filter.put(i);
+        }
+
+        long approximate = filter.getApproximateElementCount();
+
+        assertTrue(Math.abs(approximate - 50_000) < 50_000 * 0.05, "approximate=" + approximate);
+        assertEquals(0, filter.getBitSize() % 64);
+    }
+}
@@ -0,0 +1,91 @@
+package com.niko.boot.cache.hotkey;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CountMinSketchTest {
+
+    @Test
+    void countsExactlyWithoutCollisions() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+
+        for (int i = 1; i <= 100; i++) {
+            assertEquals(i, sketch.increment("a"));
+        }
+
+        assertEquals(100, sketch.estimate("a"));
+        assertEquals(0, sketch.estimate("b"));
+    }
+
+    @Test
+    void decayHalvesCounts() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        for (int i = 0; i < 101; i++) {
+            sketch.increment("a");
+        }
+        sketch.increment("b");
+
+        sketch.decay();
+
+        assertEquals(50, sketch.estimate("a"));
+        assertEquals(0, sketch.estimate("b"));
+
+        sketch.decay();
+        sketch.decay();
+
+        assertEquals(12, sketch.estimate("a"));
+        assertEquals(13, sketch.increment("a"));
+    }
+
+    @Test
+    void repeatedDecayForgetsOldTraffic() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.increment("old");
+        }
+
+        for (int i = 0; i < 14; i++) {
+            sketch.decay();
+        }
+
+        assertEquals(0, sketch.estimate("old"));
+    }
+
+    @Test
+    void neverUnderestimatesAndStaysWithinErrorBound() {
+        int width = 1024;
+        CountMinSketch sketch = new CountMinSketch(width, 4);
+        int keys = 5_000;
+        int total = 0;
+        for (int i = 0; i < keys; i++) {
+            int count = 1 + i % 10;
+            for (int j = 0; j < count; j++) {
+                sketch.increment("k" + i);
+            }
+            total += count;
+        }
+
+        // 误差上界约为 总次数 × e / width，保守更新下实际误差通常远小于此
+        long bound = (long) (total * Math.E / width);
+        int exceeded = 0;
+        for (int i = 0; i < keys; i++) {
+            int actual = 1 + i % 10;
+            int estimate = sketch.estimate("k" + i);
+            assertTrue(estimate >= actual, "k" + i);
+            if (estimate - actual > bound) {
+                exceeded++;
+            }
+        }
+        // e^-4 约 1.8%
+        assertTrue(exceeded < keys * 0.02, "exceeded=" + exceeded);
+    }
+
+    @Test
+    void rejectsInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(16, 0));
+    }
+}
@@ -0,0 +1,82 @@
+package com.niko.boot.cache.hotkey;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.niko.boot.cache.NikoCacheProperties;
+import com.niko.boot.cache.support.CacheInvalidationBus;
+
+class HotKeyDetectorTest {
+
+    private CacheInvalidationBus invalidationBus;
+
+    private HotKeyDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        NikoCacheProperties.HotKey config = new NikoCacheProperties.HotKey();
+        config.setSampleRate(1D);
+        config.setThreshold(10);
+        config.setWindow(Duration.ofMinutes(10));
+        config.setHotTtl(Duration.ofMillis(200));
+        invalidationBus = mock(CacheInvalidationBus.class);
+        detector = new HotKeyDetector(config, invalidationBus);
+    }
+
+    @Test
+    void promotesAfterThreshold() {
+        for (int i = 0; i < 9; i++) {
+            assertFalse(detector.recordAccess("user", "1"));
+        }
+        assertTrue(detector.recordAccess("user", "1"));
+        assertTrue(detector.isHot("user", "1"));
+        assertFalse(detector.isHot("user", "2"));
+        verify(invalidationBus, times(1)).publishHot("user", "1");
+    }
+
+    @Test
+    void demotesWithoutFurtherAccess() throws InterruptedException {
+        promote("1");
+
+        Thread.sleep(300);
+
+        assertFalse(detector.isHot("user", "1"));
+    }
+
+    @Test
+    void localHitsKeepHotKeyAlive() throws InterruptedException {
+        promote("1");
+
+        // 热点缓存命中不经过 L2，只有本地命中被采样
+        for (int i = 0; i < 10; i++) {
+            Thread.sleep(50);
+            assertTrue(detector.recordLocalHit("user", "1"));
+        }
+
+        assertTrue(detector.isHot("user", "1"));
+        verify(invalidationBus, times(1)).publishHot("user", "1");
+    }
+
+    @Test
+    void localHitsAloneCanPromote() {
+        for (int i = 0; i < 10; i++) {
+            detector.recordLocalHit("user", "3");
+        }
+        assertTrue(detector.isHot("user", "3"));
+    }
+
+    private void promote(String key) {
+        for (int i = 0; i < 10; i++) {
+            detector.recordAccess("user", key);
+        }
+        assertTrue(detector.isHot("user", key));
+    }
+}
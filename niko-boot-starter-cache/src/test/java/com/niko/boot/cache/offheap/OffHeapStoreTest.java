@@ -0,0 +1,188 @@
+package com.niko.boot.cache.offheap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OffHeapStoreTest {
+
+    private static final int SMALL_CAPACITY = 64 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void putGetRemove() throws IOException {
+        OffHeapStore store = new OffHeapStore(SMALL_CAPACITY, 1, null);
+
+        assertTrue(store.put("a", bytes("1"), 0));
+        assertTrue(store.put("a", bytes("2"), 0));
+        assertArrayEquals(bytes("2"), store.get("a"));
+        assertEquals(1, store.size());
+
+        store.remove("a");
+
+        assertNull(store.get("a"));
+        assertEquals(0, store.size());
+        assertEquals(1, store.getHitCount());
+        assertEquals(1, store.getMissCount());
+    }
+
+    @Test
+    void expiredEntryIsNotReturned() throws IOException {
+        OffHeapStore store = new OffHeapStore(SMALL_CAPACITY, 1, null);
+
+        store.put("expired", bytes("v"), System.currentTimeMillis() - 1);
+        store.put("live", bytes("v"), System.currentTimeMillis() + 60_000);
+
+        assertNull(store.get("expired"));
+        assertArrayEquals(bytes("v"), store.get("live"));
+    }
+
+    @Test
+    void rejectsRecordLargerThanQuarterSegment() throws IOException {
+        OffHeapStore store = new OffHeapStore(SMALL_CAPACITY, 1, null);
+
+        assertFalse(store.put("big", new byte[SMALL_CAPACITY / 4], 0));
+        assertNull(store.get("big"));
+    }
+
+    @Test
+    void removeKeepsOtherKeysReachable() throws IOException {
+        // 大量 key 落在同一段，删除时的后移会搬动同一探测链上的其他槽位
+        OffHeapStore store = new OffHeapStore(4 * 1024 * 1024, 1, null);
+        for (int i = 0; i < 20_000; i++) {
+            store.put("k" + i, bytes("v" + i), 0);
+        }
+
+        for (int i = 0; i < 20_000; i += 2) {
+            store.remove("k" + i);
+        }
+
+        assertEquals(10_000, store.size());
+        for (int i = 0; i < 20_000; i++) {
+            byte[] value = store.get("k" + i);
+            if (i % 2 == 0) {
+                assertNull(value, "k" + i);
+            } else {
+                assertArrayEquals(bytes("v" + i), value, "k" + i);
+            }
+        }
+    }
+
+    @Test
+    void wrapsAroundAndEvictsOldest() throws IOException {
+        OffHeapStore store = new OffHeapStore(SMALL_CAPACITY, 1, null);
+        byte[] value = new byte[100];
+
+        for (int i = 0; i < 2_000; i++) {
+            Arrays.fill(value, (byte) i);
+            assertTrue(store.put("k" + i, value, 0));
+        }
+
+        assertTrue(store.getEvictionCount() > 0);
+        assertTrue(store.getUsedBytes() <= store.getCapacity());
+        assertNull(store.get("k0"));
+        for (int i = 1_900; i < 2_000; i++) {
+            Arrays.fill(value, (byte) i);
+            assertArrayEquals(value, store.get("k" + i), "k" + i);
+        }
+    }
+
+    @Test
+    void clockKeepsReferencedEntries() throws IOException {
+        OffHeapStore store = new OffHeapStore(SMALL_CAPACITY, 1, null);
+        store.put("hot", bytes("hot"), 0);
+        store.put("peeked", bytes("peeked"), 0);
+
+        for (int i = 0; i < 2_000; i++) {
+            store.put("cold" + i, new byte[100], 0);
+            if (i % 50 == 0) {
+                // get 设置引用位，peek 不设置
+                assertNotNull(store.get("hot"));
+                store.peek("peeked");
+            }
+        }
+
+        assertArrayEquals(bytes("hot"), store.get("hot"));
+        assertNull(store.peek("peeked"));
+        assertNull(store.get("cold0"));
+    }
+
+    @Test
+    void matchesReferenceMapUnderRandomOperations() throws IOException {
+        OffHeapStore store = new OffHeapStore(1024 * 1024, 4, null);
+        Map<String, byte[]> reference = new HashMap<String, byte[]>();
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            String key = "k" + random.nextInt(5_000);
+            int op = random.nextInt(10);
+            if (op < 5) {
+                byte[] value = new byte[random.nextInt(400)];
+                random.nextBytes(value);
+                store.put(key, value, 0);
+                reference.put(key, value);
+            } else if (op < 9) {
+                // 可能已被淘汰，命中时必须是最后写入的值
+                byte[] value = store.get(key);
+                if (value != null) {
+                    assertArrayEquals(reference.get(key), value, key);
+                }
+            } else {
+                store.remove(key);
+                reference.remove(key);
+                assertNull(store.get(key));
+            }
+        }
+    }
+
+    @Test
+    void restoresMappedFileAfterReopen() throws IOException {
+        Path file = tempDir.resolve("offheap.dat");
+        OffHeapStore store = new OffHeapStore(2 * 1024 * 1024, 2, file);
+        for (int i = 0; i < 1_000; i++) {
+            store.put("k" + i, bytes("v" + i), 0);
+        }
+        store.remove("k0");
+        store.close();
+
+        OffHeapStore reopened = new OffHeapStore(2 * 1024 * 1024, 2, file);
+        try {
+            Set<String> keys = new HashSet<String>();
+            for (int i = 0; i < reopened.getSegmentCount(); i++) {
+                keys.addAll(reopened.segmentKeys(i));
+            }
+            assertFalse(keys.contains("k0"));
+            assertTrue(keys.contains("k999"));
+            assertNull(reopened.peek("k0"));
+            for (int i = 1; i < 1_000; i++) {
+                assertArrayEquals(bytes("v" + i), reopened.peek("k" + i), "k" + i);
+            }
+            // peek 不计入命中统计
+            assertEquals(0, reopened.getHitCount());
+            assertEquals(0, reopened.getMissCount());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,281 @@
+package com.niko.boot.cache.serializer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 与 JDK 序列化、Jackson 的往返与体积对比
+ * Result 与 NikoResult 结构相同（LinkedHashMap 子类），缓存模块不依赖 model 模块，故在此重新声明
+ */
+class NikoBinaryRedisSerializerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(NikoBinaryRedisSerializerTest.class);
+
+    enum Status {
+        ACTIVE, LOCKED
+    }
+
+    record UserView(long id, String name, int age, Status status, List<String> roles, Map<String, Integer> scores)
+            implements Serializable {
+    }
+
+    static class Result extends LinkedHashMap<String, Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        Result() {
+        }
+
+        Result(int code, String msg, Object data) {
+            put("code", code);
+            put("msg", msg);
+            put("data", data);
+        }
+    }
+
+    static class Address implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String city;
+        private int zip;
+        private transient String cached;
+
+        Address() {
+        }
+
+        Address(String city, int zip) {
+            this.city = city;
+            this.zip = zip;
+            this.cached = city + zip;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Address && Objects.equals(city, ((Address) o).city) && zip == ((Address) o).zip;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(city, zip);
+        }
+    }
+
+    private static NikoBinaryRedisSerializer registered() {
+        return new NikoBinaryRedisSerializer().register(UserView.class, Result.class, Address.class);
+    }
+
+    private static Object roundTrip(NikoBinaryRedisSerializer serializer, Object value) {
+        return serializer.deserialize(serializer.serialize(value));
+    }
+
+    @Test
+    void roundTripsScalars() {
+        NikoBinaryRedisSerializer serializer = new NikoBinaryRedisSerializer();
+        List<Object> values = Arrays.asList(0, -1, 127, 128, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE,
+                (short) -300, (byte) 7, 'z', 1.5f, -0.25d, true, false, "中文 text", new BigDecimal("12345.6700"),
+                new BigInteger("123456789012345678901234567890"), new Date(1_700_000_000_123L), LocalDate.of(2024, 2, 29),
+                LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_789), Instant.ofEpochSecond(1_700_000_000L, 42), Status.LOCKED);
+        for (Object value : values) {
+            assertEquals(value, roundTrip(serializer, value), () -> "类型: " + value.getClass());
+        }
+        byte[] bytes = { 1, 2, 3, (byte) 0xFF };
+        assertArrayEquals(bytes, (byte[]) roundTrip(serializer, bytes));
+    }
+
+    @Test
+    void encodesSmallIntegersAsSingleByteVarint() {
+        NikoBinaryRedisSerializer serializer = new NikoBinaryRedisSerializer();
+        // 版本 + 类型标记 + 变长值
+        assertEquals(3, serializer.serialize(0).length);
+        assertEquals(3, serializer.serialize(-1).length);
+        assertEquals(3, serializer.serialize(63).length);
+        assertEquals(4, serializer.serialize(64).length);
+        assertEquals(3, serializer.serialize(-64L).length);
+        assertEquals(12, serializer.serialize(Long.MAX_VALUE).length);
+        assertEquals(12, serializer.serialize(Long.MIN_VALUE).length);
+    }
+
+    @Test
+    void roundTripsNestedCollections() {
+        NikoBinaryRedisSerializer serializer = new NikoBinaryRedisSerializer();
+        Map<String, Object> value = new LinkedHashMap<String, Object>();
+        value.put("list", new ArrayList<Object>(Arrays.asList(1, "a", null, Arrays.asList(2L, 3L))));
+        value.put("set", new LinkedHashSet<Object>(Arrays.asList("x", "y")));
+        Map<String, Object> inner = new LinkedHashMap<String, Object>();
+        inner.put("deep", List.of(Map.of("k", Set.of(1))));
+        value.put("map", inner);
+
+        Object result = roundTrip(serializer, value);
+
+        assertEquals(value, result);
+        assertInstanceOf(LinkedHashMap.class, result);
+        assertInstanceOf(ArrayList.class, ((Map<?, ?>) result).get("list"));
+        assertInstanceOf(LinkedHashSet.class, ((Map<?, ?>) result).get("set"));
+    }
+
+    @Test
+    void roundTripsRegisteredRecordMapSubclassAndFields() {
+        NikoBinaryRedisSerializer serializer = registered();
+        Result result = new Result(200, "ok", users(3));
+
+        Object copy = roundTrip(serializer, result);
+
+        assertInstanceOf(Result.class, copy);
+        assertEquals(result, copy);
+        assertInstanceOf(UserView.class, ((List<?>) ((Result) copy).get("data")).get(0));
+
+        Address address = (Address) roundTrip(serializer, new Address("杭州", 310000));
+        assertEquals(new Address("杭州", 310000), address);
+        assertNull(address.cached);
+    }
+
+    @Test
+    void registeredLayoutOmitsClassName() {
+        UserView user = users(1).get(0);
+        byte[] unregistered = new NikoBinaryRedisSerializer().serialize(user);
+        byte[] registered = registered().serialize(user);
+
+        assertTrue(registered.length < unregistered.length,
+                () -> "registered=" + registered.length + ", unregistered=" + unregistered.length);
+        assertEquals(user, registered().deserialize(registered));
+        assertEquals(user, new NikoBinaryRedisSerializer().deserialize(unregistered));
+    }
+
+    @Test
+    void unknownRegistrationIdIsRejected() {
+        byte[] bytes = registered().serialize(users(1).get(0));
+
+        assertThrows(SerializationException.class, () -> new NikoBinaryRedisSerializer().deserialize(bytes));
+    }
+
+    @Test
+    void compressesAboveThreshold() {
+        NikoBinaryRedisSerializer serializer = registered();
+        NikoBinaryRedisSerializer uncompressed = new NikoBinaryRedisSerializer(-1, null).register(UserView.class, Result.class, Address.class);
+        Result small = new Result(200, "ok", users(1));
+        Result large = new Result(200, "ok", users(500));
+
+        byte[] smallBytes = serializer.serialize(small);
+        byte[] largeBytes = serializer.serialize(large);
+        byte[] rawBytes = uncompressed.serialize(large);
+
+        assertEquals(0x10, smallBytes[0]);
+        assertEquals(0x11, largeBytes[0]);
+        assertEquals(0x10, rawBytes[0]);
+        assertTrue(largeBytes.length < rawBytes.length, () -> "compressed=" + largeBytes.length + ", raw=" + rawBytes.length);
+        assertEquals(large, serializer.deserialize(largeBytes));
+        assertEquals(large, uncompressed.deserialize(rawBytes));
+    }
+
+    @Test
+    void fallsBackToJdkForUnregisteredSerializable() {
+        ConcurrentHashMap<String, Integer> value = new ConcurrentHashMap<String, Integer>(Map.of("a", 1));
+
+        Object copy = roundTrip(new NikoBinaryRedisSerializer(), value);
+
+        assertInstanceOf(ConcurrentHashMap.class, copy);
+        assertEquals(value, copy);
+    }
+
+    @Test
+    void smallerThanJdkAndJackson() {
+        JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+        GenericJackson2JsonRedisSerializer jackson = new GenericJackson2JsonRedisSerializer();
+        NikoBinaryRedisSerializer niko = new NikoBinaryRedisSerializer(-1, null).register(UserView.class, Result.class, Address.class);
+        Result result = new Result(200, "ok", users(50));
+
+        byte[] nikoBytes = niko.serialize(result);
+        byte[] jdkBytes = jdk.serialize(result);
+        byte[] jacksonBytes = jackson.serialize(result);
+
+        assertEquals(result, niko.deserialize(nikoBytes));
+        assertEquals(result, jdk.deserialize(jdkBytes));
+        assertTrue(nikoBytes.length < jdkBytes.length, () -> "niko=" + nikoBytes.length + ", jdk=" + jdkBytes.length);
+        assertTrue(nikoBytes.length < jacksonBytes.length, () -> "niko=" + nikoBytes.length + ", jackson=" + jacksonBytes.length);
+        log.info("50 users: niko {} bytes, jdk {} bytes, jackson {} bytes", nikoBytes.length, jdkBytes.length, jacksonBytes.length);
+    }
+
+    @Test
+    void collectionsRoundTripLikeJackson() {
+        GenericJackson2JsonRedisSerializer jackson = new GenericJackson2JsonRedisSerializer();
+        NikoBinaryRedisSerializer niko = new NikoBinaryRedisSerializer();
+        Map<String, Object> value = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < 20; i++) {
+            // Jackson 无法还原 Arrays$ArrayList，嵌套列表同样使用 ArrayList
+            value.put("key" + i, new ArrayList<Object>(Arrays.asList(i, "v" + i, new ArrayList<Object>(Arrays.asList(i * 1000, -i)))));
+        }
+
+        byte[] nikoBytes = niko.serialize(value);
+        byte[] jacksonBytes = jackson.serialize(value);
+
+        assertEquals(value, niko.deserialize(nikoBytes));
+        assertEquals(value, jackson.deserialize(jacksonBytes));
+        assertTrue(nikoBytes.length < jacksonBytes.length, () -> "niko=" + nikoBytes.length + ", jackson=" + jacksonBytes.length);
+    }
+
+    @Test
+    void logsRoundTripTime() {
+        JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+        NikoBinaryRedisSerializer niko = registered();
+        Result result = new Result(200, "ok", users(50));
+        // 预热
+        for (int i = 0; i < 200; i++) {
+            niko.deserialize(niko.serialize(result));
+            jdk.deserialize(jdk.serialize(result));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            niko.deserialize(niko.serialize(result));
+        }
+        long nikoNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            jdk.deserialize(jdk.serialize(result));
+        }
+        long jdkNanos = System.nanoTime() - start;
+        // 只记录耗时，不做断言，避免受测试机器负载影响
+        log.info("1000 round trips: niko {} ms, jdk {} ms", TimeUnit.NANOSECONDS.toMillis(nikoNanos), TimeUnit.NANOSECONDS.toMillis(jdkNanos));
+    }
+
+    private static List<UserView> users(int count) {
+        List<UserView> users = new ArrayList<UserView>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Integer> scores = new LinkedHashMap<String, Integer>();
+            scores.put("math", 60 + i % 40);
+            scores.put("english", 70 + i % 30);
+            users.add(new UserView(10_000L + i, "user-" + i, 18 + i % 50, i % 7 == 0 ? Status.LOCKED : Status.ACTIVE,
+                    new ArrayList<String>(Arrays.asList("admin", "user")), scores));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,60 @@
+package com.niko.boot.cache.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.niko.boot.cache.NikoCacheProperties;
+
+class NikoTwoLevelCacheTest {
+
+    private NikoTwoLevelCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        // Redis 中的 key 已按 ttl 过期，只剩本地缓存可能命中
+        when(valueOperations.get(anyString())).thenReturn(null);
+        NikoCacheProperties.CacheSpec spec = new NikoCacheProperties().resolve("user");
+        spec.setL1Ttl(Duration.ofSeconds(60));
+        cache = new NikoTwoLevelCache("user", "niko:cache:", spec, redisTemplate, mock(CacheInvalidationBus.class));
+    }
+
+    @Test
+    void localEntryExpiresWithShorterTtl() throws InterruptedException {
+        cache.put("1", "value", Duration.ofMillis(200));
+        assertEquals("value", cache.get("1").get());
+
+        Thread.sleep(400);
+
+        assertNull(cache.get("1"));
+    }
+
+    @Test
+    void nullPlaceholderExpiresWithNullTtl() throws InterruptedException {
+        cache.putNull("2", Duration.ofMillis(200));
+        assertNull(cache.get("2").get());
+
+        Thread.sleep(400);
+
+        assertNull(cache.get("2"));
+    }
+
+    @Test
+    void localEntryKeepsLocalTtlWhenLonger() {
+        cache.put("3", "value", Duration.ofMinutes(10));
+        assertEquals("value", cache.get("3").get());
+    }
+}
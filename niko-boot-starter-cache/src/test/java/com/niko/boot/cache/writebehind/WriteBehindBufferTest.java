@@ -0,0 +1,201 @@
+package com.niko.boot.cache.writebehind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class WriteBehindBufferTest {
+
+    /** 足够长，测试中只由 flush()、batchSize 或 destroy() 触发刷新 */
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    @Test
+    void coalescesWritesPerKey() {
+        List<Map<Long, Long>> batches = new CopyOnWriteArrayList<Map<Long, Long>>();
+        WriteBehindBuffer<Long, Long> buffer = WriteBehindBuffer.<Long, Long>builder("views", batches::add)
+                .merge(Long::sum)
+                .flushInterval(NEVER)
+                .build();
+
+        buffer.write(1L, 1L);
+        buffer.write(1L, 2L);
+        buffer.write(2L, 5L);
+        buffer.flush();
+
+        assertEquals(1, batches.size());
+        assertEquals(Map.of(1L, 3L, 2L, 5L), batches.get(0));
+        assertEquals(0, buffer.getPendingCount());
+        buffer.destroy();
+    }
+
+    @Test
+    void splitsFlushIntoBatches() {
+        List<Map<Integer, Integer>> batches = new CopyOnWriteArrayList<Map<Integer, Integer>>();
+        WriteBehindBuffer<Integer, Integer> buffer = WriteBehindBuffer.<Integer, Integer>builder("rows", batches::add)
+                .batchSize(100)
+                .flushInterval(NEVER)
+                .build();
+        for (int i = 0; i < 99; i++) {
+            buffer.write(i, i);
+        }
+
+        buffer.flush();
+
+        assertEquals(1, batches.size());
+        assertEquals(99, batches.get(0).size());
+        buffer.destroy();
+    }
+
+    @Test
+    void batchSizeTriggersBackgroundFlush() throws InterruptedException {
+        CountDownLatch flushed = new CountDownLatch(1);
+        WriteBehindBuffer<Integer, Integer> buffer = WriteBehindBuffer.<Integer, Integer>builder("rows", batch -> flushed.countDown())
+                .batchSize(10)
+                .flushInterval(NEVER)
+                .build();
+
+        for (int i = 0; i < 10; i++) {
+            buffer.write(i, i);
+        }
+
+        assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        buffer.destroy();
+    }
+
+    @Test
+    void failedBatchIsRequeuedAndRetried() {
+        AtomicInteger calls = new AtomicInteger();
+        Map<Long, Long> written = new ConcurrentHashMap<Long, Long>();
+        WriteBehindBuffer<Long, Long> buffer = WriteBehindBuffer.<Long, Long>builder("views", batch -> {
+                    if (calls.incrementAndGet() == 1) {
+                        throw new IllegalStateException("db down");
+                    }
+                    batch.forEach((key, value) -> written.merge(key, value, Long::sum));
+                })
+                .merge(Long::sum)
+                .flushInterval(NEVER)
+                .build();
+        for (long i = 0; i < 6; i++) {
+            buffer.write(i, 1L);
+        }
+
+        assertThrows(IllegalStateException.class, buffer::flush);
+
+        assertEquals(0, written.size());
+        assertEquals(6, buffer.getPendingCount());
+
+        // 放回的值与之后的写入合并，不丢失也不重复
+        buffer.write(5L, 10L);
+        buffer.flush();
+
+        assertEquals(6, written.size());
+        assertEquals(Long.valueOf(1L), written.get(0L));
+        assertEquals(Long.valueOf(11L), written.get(5L));
+        assertEquals(0, buffer.getPendingCount());
+        buffer.destroy();
+    }
+
+    @Test
+    void requeueKeepsWritesMadeDuringFailedFlush() {
+        AtomicReference<WriteBehindBuffer<String, String>> ref = new AtomicReference<WriteBehindBuffer<String, String>>();
+        AtomicInteger calls = new AtomicInteger();
+        Map<String, String> written = new ConcurrentHashMap<String, String>();
+        WriteBehindBuffer<String, String> buffer = WriteBehindBuffer.<String, String>builder("names", batch -> {
+                    if (calls.incrementAndGet() == 1) {
+                        // 落库期间的新写入比失败批次中的值更新
+                        ref.get().write("a", "newer");
+                        throw new IllegalStateException("db down");
+                    }
+                    written.putAll(batch);
+                })
+                .flushInterval(NEVER)
+                .build();
+        ref.set(buffer);
+        buffer.write("a", "older");
+
+        assertThrows(IllegalStateException.class, buffer::flush);
+        buffer.flush();
+
+        assertEquals("newer", written.get("a"));
+        buffer.destroy();
+    }
+
+    @Test
+    void destroyFlushesRemainingAndRejectsWrites() {
+        Map<Integer, Integer> written = new ConcurrentHashMap<Integer, Integer>();
+        WriteBehindBuffer<Integer, Integer> buffer = WriteBehindBuffer.<Integer, Integer>builder("rows", written::putAll)
+                .flushInterval(NEVER)
+                .build();
+        buffer.write(1, 1);
+        buffer.write(2, 2);
+
+        buffer.destroy();
+
+        assertEquals(Map.of(1, 1, 2, 2), written);
+        assertThrows(IllegalStateException.class, () -> buffer.write(3, 3));
+    }
+
+    @Test
+    void noWriteLostWhenClosingConcurrently() throws InterruptedException {
+        AtomicLong flushedTotal = new AtomicLong();
+        WriteBehindBuffer<Integer, Long> buffer = WriteBehindBuffer.<Integer, Long>builder("views",
+                        batch -> batch.values().forEach(flushedTotal::addAndGet))
+                .merge(Long::sum)
+                .batchSize(50)
+                .flushInterval(Duration.ofMillis(5))
+                .build();
+        AtomicLong accepted = new AtomicLong();
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; ; i++) {
+                    try {
+                        buffer.write(i % 200, 1L);
+                    } catch (IllegalStateException e) {
+                        return;
+                    }
+                    accepted.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        started.await();
+        Thread.sleep(50);
+
+        buffer.destroy();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // 关闭前被接受的写入全部落库
+        assertEquals(accepted.get(), flushedTotal.get());
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> WriteBehindBuffer.<Integer, Integer>builder("rows", batch -> { }).batchSize(0).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> WriteBehindBuffer.<Integer, Integer>builder("rows", batch -> { }).batchSize(10).maxPendingKeys(5).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> WriteBehindBuffer.<Integer, Integer>builder("rows", batch -> { }).flushInterval(Duration.ZERO).build());
+    }
+}
@@ -1,8 +1,52 @@
 package com.niko.boot.dao;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.niko.boot.dao.cache.QueryCache;
+import com.niko.boot.dao.cache.QueryCacheKeys;
+import com.niko.boot.dao.datasource.DataSourceRoutingContext;
+import com.niko.boot.dao.mybatis.FetchSizeInterceptor;
+import com.niko.boot.dao.mybatis.MultiRowInsert;
+import com.niko.boot.dao.mybatis.MultiRowSqlSource;
+import com.niko.boot.dao.page.KeysetPage;
+import com.niko.boot.dao.page.KeysetToken;
+import com.niko.boot.dao.page.Page;
+
+import jakarta.annotation.PostConstruct;
 
 /**
  * Dao基础类
@@ -22,7 +66,52 @@ public abstract class BaseDao {
      */
     protected abstract String getSqlNamespace();
     
-    private String _statement = null;
+    /** 批量写入默认每批提交条数 */
+    protected static final int DEFAULT_BATCH_FLUSH_SIZE = 1000;
+    
+    /** 分页查询中并行执行 count 的虚拟线程池 */
+    private static final ExecutorService COUNT_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    
+    /** 默认SQL的ID(不包含namespace) */
+    private static final String[] DEFAULT_STATEMENTS = { "create", "remove", "modify", "get", "query", "count" };
+    
+    /** SQL的ID -> 完整的SQL ID，同一ID只拼接一次，后续调用直接复用同一字符串实例 */
+    private final Map<String, String> statementIds = new ConcurrentHashMap<String, String>();
+    
+    private volatile Cache<String, Integer> countCache;
+    
+    private QueryCache queryCache;
+    
+    /**
+     * 注入查询结果缓存（niko.dao.query-cache.enabled=true 时存在）
+     * @param queryCache
+     */
+    @Autowired(required = false)
+    public void setQueryCache(QueryCache queryCache) {
+        this.queryCache = queryCache;
+    }
+    
+    /**
+     * 是否对 get/query/count 启用查询结果缓存，默认关闭
+     * 读多写少、可容忍短暂不一致的 DAO 重载返回 true；缓存的结果对象为共享实例，调用方不应修改
+     * @return boolean
+     */
+    protected boolean isQueryCacheEnabled() {
+        return false;
+    }
+    
+    /**
+     * 返回 SqlSessionFactory，用于开启批量执行器等独立会话
+     * 默认从 SqlSessionTemplate 中获取，getSqlSession() 不是 SqlSessionTemplate 时需重载此方法
+     * @return SqlSessionFactory
+     */
+    protected SqlSessionFactory getSqlSessionFactory() {
+        SqlSession sqlSession = getSqlSession();
+        if (sqlSession instanceof SqlSessionTemplate) {
+            return ((SqlSessionTemplate) sqlSession).getSqlSessionFactory();
+        }
+        throw new UnsupportedOperationException("无法从[" + sqlSession.getClass().getName() + "]获取SqlSessionFactory，请重载getSqlSessionFactory()");
+    }
     
     /**
      * 获取需要操作sql的id，当getEntityClass().getName()无法满足时，可以重载此方法
@@ -30,58 +119,602 @@ public abstract class BaseDao {
      * @return String
      */
     protected String getStatementName(String statementName) {
-        if (_statement == null) {
-            _statement = getSqlNamespace() + ".";
+        String statement = statementIds.get(statementName);
+        if (statement == null) {
+            statement = statementIds.computeIfAbsent(statementName, k -> getSqlNamespace() + "." + k);
+        }
+        return statement;
+    }
+    
+    /**
+     * 预先生成默认SQL与 mapper 中本命名空间已声明SQL的完整ID
+     */
+    @PostConstruct
+    protected void initStatementIds() {
+        for (String statementName : DEFAULT_STATEMENTS) {
+            getStatementName(statementName);
+        }
+        SqlSession sqlSession = getSqlSession();
+        if (sqlSession == null) {
+            return;
+        }
+        Configuration configuration = sqlSession.getConfiguration();
+        String prefix = getSqlNamespace() + ".";
+        for (String name : configuration.getMappedStatementNames()) {
+            if (name.startsWith(prefix)) {
+                statementIds.putIfAbsent(name.substring(prefix.length()), name);
+            }
         }
-        return _statement + statementName;
     }
     
     public int create(String statementName, Object entity) {
-        return this.getSqlSession().insert(getStatementName(statementName), entity);
+        int rows = this.getSqlSession().insert(getStatementName(statementName), entity);
+        evictQueryCache();
+        return rows;
     }
     
     public int remove(String statementName, String[] ids) {
-        return this.getSqlSession().delete(getStatementName(statementName), ids);
+        int rows = this.getSqlSession().delete(getStatementName(statementName), ids);
+        evictQueryCache();
+        return rows;
     }
     
     public int modify(String statementName, Object entity) {
-        return this.getSqlSession().update(getStatementName(statementName), entity);
+        int rows = this.getSqlSession().update(getStatementName(statementName), entity);
+        evictQueryCache();
+        return rows;
     }
     
     public int create(Object entity) {
-        return this.getSqlSession().insert(getStatementName("create"), entity);
+        return create("create", entity);
     }
     
     public int remove(String[] ids) {
-        return this.getSqlSession().delete(getStatementName("remove"), ids);
+        return remove("remove", ids);
     }
     
     public int modify(Object entity) {
-        return this.getSqlSession().update(getStatementName("modify"), entity);
+        return modify("modify", entity);
     }
     
     public <T> T get(String statementName, Object param) {
-        return this.getSqlSession().selectOne(getStatementName(statementName), param);
+        String statement = getStatementName(statementName);
+        return cachedSelect(statement, param, () -> this.getSqlSession().selectOne(statement, param));
     }
     
     public <E> List<E> query(String statementName, Object param) {
-        return this.getSqlSession().selectList(getStatementName(statementName), param);
+        String statement = getStatementName(statementName);
+        return cachedSelect(statement, param, () -> this.getSqlSession().selectList(statement, param));
+    }
+    
+    /**
+     * 游标查询，逐行读取结果，适用于大数据量导出
+     * 游标依赖底层连接，需在事务内使用，并由调用方关闭（Cursor 同时是 Iterable，可直接交给导出工具）
+     * JDBC fetchSize 可在 mapper 的 select 上通过 fetchSize 属性指定
+     * @param statementName SQL的ID(不包含namespace)
+     * @param param 参数
+     * @return Cursor
+     */
+    public <E> Cursor<E> cursor(String statementName, Object param) {
+        return DataSourceRoutingContext.read(() -> this.getSqlSession().<E>selectCursor(getStatementName(statementName), param));
+    }
+    
+    /**
+     * 游标查询，指定 JDBC fetchSize（需注册 FetchSizeInterceptor）
+     * 需在事务内使用，并由调用方关闭
+     * @param statementName SQL的ID(不包含namespace)
+     * @param param 参数
+     * @param fetchSize JDBC fetchSize
+     * @return Cursor
+     */
+    public <E> Cursor<E> cursor(String statementName, Object param, int fetchSize) {
+        FetchSizeInterceptor.set(fetchSize);
+        try {
+            return DataSourceRoutingContext.read(() -> this.getSqlSession().<E>selectCursor(getStatementName(statementName), param));
+        } finally {
+            FetchSizeInterceptor.clear();
+        }
+    }
+    
+    /**
+     * 流式查询
+     * 使用独立的 SqlSession，无需事务；存在 Spring 事务时复用事务连接
+     * 不在事务中时临时关闭连接的 autocommit（PostgreSQL 在 autocommit 下忽略 fetchSize 并一次取回全部结果），关闭 Stream 时回滚只读事务并恢复
+     * 返回的 Stream 持有数据库资源，必须关闭（try-with-resources）
+     * @param statementName SQL的ID(不包含namespace)
+     * @param param 参数
+     * @param fetchSize JDBC fetchSize
+     * @return Stream
+     */
+    public <E> Stream<E> stream(String statementName, Object param, int fetchSize) {
+        SqlSession streamSession = getSqlSessionFactory().openSession(false);
+        boolean[] autoCommitDisabled = new boolean[1];
+        Cursor<E> cursor;
+        FetchSizeInterceptor.set(fetchSize);
+        try {
+            // 在路由上下文内取连接，读写分离时连接来自从库
+            cursor = DataSourceRoutingContext.read(() -> {
+                autoCommitDisabled[0] = disableAutoCommit(streamSession);
+                return streamSession.<E>selectCursor(getStatementName(statementName), param);
+            });
+        } catch (RuntimeException e) {
+            closeStreamSession(streamSession, autoCommitDisabled[0]);
+            throw e;
+        } finally {
+            FetchSizeInterceptor.clear();
+        }
+        return StreamSupport.stream(cursor.spliterator(), false).onClose(() -> {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                closeStreamSession(streamSession, autoCommitDisabled[0]);
+            }
+        });
+    }
+    
+    /**
+     * 不在 Spring 事务中且连接为 autocommit 时关闭 autocommit
+     * SpringManagedTransaction 忽略 openSession(false) 的参数，需直接设置连接
+     * @param session 流式查询会话
+     * @return 是否修改了 autocommit
+     */
+    private static boolean disableAutoCommit(SqlSession session) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        try {
+            Connection connection = session.getConnection();
+            if (!connection.getAutoCommit()) {
+                return false;
+            }
+            connection.setAutoCommit(false);
+            return true;
+        } catch (SQLException e) {
+            throw new PersistenceException("关闭流式查询连接的autocommit失败", e);
+        }
+    }
+    
+    private static void closeStreamSession(SqlSession session, boolean restoreAutoCommit) {
+        try {
+            if (restoreAutoCommit) {
+                Connection connection = session.getConnection();
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new PersistenceException("恢复流式查询连接的autocommit失败", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    /**
+     * 流式查询，回调结束后自动关闭游标与会话
+     * @param statementName SQL的ID(不包含namespace)
+     * @param param 参数
+     * @param fetchSize JDBC fetchSize
+     * @param action 处理流的回调
+     * @return 回调返回值
+     */
+    public <E, R> R stream(String statementName, Object param, int fetchSize, Function<Stream<E>, R> action) {
+        try (Stream<E> stream = stream(statementName, param, fetchSize)) {
+            return action.apply(stream);
+        }
+    }
+    
+    /**
+     * 逐行回调查询，结果不在内存中汇总
+     * @param statementName SQL的ID(不包含namespace)
+     * @param param 参数
+     * @param handler 行处理器
+     */
+    public <E> void query(String statementName, Object param, ResultHandler<E> handler) {
+        selectWithHandler(statementName, param, null, handler);
+    }
+    
+    /**
+     * 逐行回调查询，指定 JDBC fetchSize（需注册 FetchSizeInterceptor）
+     * @param statementName SQL的ID(不包含namespace)
+     * @param param 参数
+     * @param fetchSize JDBC fetchSize
+     * @param handler 行处理器
+     */
+    public <E> void query(String statementName, Object param, int fetchSize, ResultHandler<E> handler) {
+        selectWithHandler(statementName, param, fetchSize, handler);
+    }
+    
+    private <E> void selectWithHandler(String statementName, Object param, Integer fetchSize, ResultHandler<E> handler) {
+        if (fetchSize != null) {
+            FetchSizeInterceptor.set(fetchSize);
+        }
+        try {
+            DataSourceRoutingContext.read(() -> {
+                this.getSqlSession().select(getStatementName(statementName), param, handler);
+                return null;
+            });
+        } finally {
+            if (fetchSize != null) {
+                FetchSizeInterceptor.clear();
+            }
+        }
     }
     
     public int count(String statementName, Object param) {
-        return this.getSqlSession().selectOne(getStatementName(statementName), param);
+        String statement = getStatementName(statementName);
+        Integer count = cachedSelect(statement, param, () -> this.getSqlSession().<Integer>selectOne(statement, param));
+        return count;
     }
     
     public <T> T get(Object param) {
-        return this.getSqlSession().selectOne(getStatementName("get"), param);
+        return get("get", param);
     }
     
     public <E> List<E> query(Object param) {
-        return this.getSqlSession().selectList(getStatementName("query"), param);
+        return query("query", param);
+    }
+    
+    public <E> Cursor<E> cursor(Object param) {
+        return cursor("query", param);
+    }
+    
+    public <E> Stream<E> stream(Object param, int fetchSize) {
+        return stream("query", param, fetchSize);
     }
     
     public int count(Object param) {
-        return this.getSqlSession().selectOne(getStatementName("count"), param);
+        return count("count", param);
+    }
+    
+    /**
+     * Keyset（Seek）分页查询
+     * 以上一页最后一行的排序键为起点查询下一页，SQL 不使用 OFFSET，深度翻页耗时恒定
+     * 查询时会向参数中追加：lastKey（首个排序键）、lastKeys（全部排序键，数组）、limit（pageSize + 1，多取一行用于判断是否有下一页）
+     * 首页时 lastKey/lastKeys 为 null。mapper 示例：
+     * <pre>{@code
+     * <select id="queryKeyset" resultType="User">
+     *     SELECT * FROM t_user
+     *     <where>
+     *         <if test="lastKey != null">AND id > #{lastKey}</if>
+     *     </where>
+     *     ORDER BY id LIMIT #{limit}
+     * </select>
+     * }</pre>
+     * @param statementName SQL的ID(不包含namespace)
+     * @param countStatementName 总数SQL的ID，为null时不统计；只在首页统计一次，后续页由调用方沿用
+     * @param param 查询参数
+     * @param token 上一页返回的 nextToken，首页传null
+     * @param pageSize 每页条数
+     * @param keyExtractor 从行中取排序键，顺序与 ORDER BY 一致
+     * @return 分页结果
+     */
+    public <E> KeysetPage<E> queryKeyset(String statementName, String countStatementName, Map<String, ?> param, String token, int pageSize, Function<E, Object[]> keyExtractor) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize必须大于0: " + pageSize);
+        }
+        Object[] lastKeys = token != null ? KeysetToken.decode(token) : null;
+        Map<String, Object> keysetParam = new HashMap<String, Object>();
+        if (param != null) {
+            keysetParam.putAll(param);
+        }
+        keysetParam.put("lastKey", lastKeys != null ? lastKeys[0] : null);
+        keysetParam.put("lastKeys", lastKeys);
+        keysetParam.put("limit", pageSize + 1);
+        List<E> rows = query(statementName, keysetParam);
+        
+        String nextToken = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<E>(rows.subList(0, pageSize));
+            nextToken = KeysetToken.encode(keyExtractor.apply(rows.get(pageSize - 1)));
+        }
+        Integer total = null;
+        if (token == null && countStatementName != null) {
+            total = count(countStatementName, param);
+        }
+        return new KeysetPage<E>(rows, nextToken, total);
+    }
+    
+    /**
+     * Keyset（Seek）分页查询，不统计总数
+     * @param statementName SQL的ID(不包含namespace)
+     * @param param 查询参数
+     * @param token 上一页返回的 nextToken，首页传null
+     * @param pageSize 每页条数
+     * @param keyExtractor 从行中取排序键，顺序与 ORDER BY 一致
+     * @return 分页结果
+     */
+    public <E> KeysetPage<E> queryKeyset(String statementName, Map<String, ?> param, String token, int pageSize, Function<E, Object[]> keyExtractor) {
+        return queryKeyset(statementName, null, param, token, pageSize, keyExtractor);
+    }
+    
+    /**
+     * 分页查询，count 与当前页查询并行执行
+     * count 在虚拟线程上使用独立的 SqlSession（独立连接）执行，当前页查询在调用线程执行，总耗时约为两者中较慢的一个
+     * 处于 Spring 事务中时改为顺序执行，保证 count 与当前页读取同一事务视图
+     * getCountCacheTtlMillis() 大于0时，count 结果按规范化参数缓存，写操作时清空
+     * @param statementName 当前页SQL的ID(不包含namespace)
+     * @param countStatementName 总数SQL的ID(不包含namespace)
+     * @param param 查询参数
+     * @return 分页结果
+     */
+    public <E> Page<E> page(String statementName, String countStatementName, Object param) {
+        String countStatement = getStatementName(countStatementName);
+        String countKey = countStatement + "#" + QueryCacheKeys.canonicalize(param);
+        Cache<String, Integer> cache = getCountCache();
+        Integer cachedCount = cache != null ? cache.getIfPresent(countKey) : null;
+        if (cachedCount != null) {
+            return new Page<E>(this.<E>query(statementName, param), cachedCount);
+        }
+        
+        CompletableFuture<Integer> countFuture;
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            countFuture = CompletableFuture.completedFuture(count(countStatementName, param));
+        } else {
+            SqlSessionFactory sqlSessionFactory = getSqlSessionFactory();
+            // @UsePrimary 内的分页 count 同样走主库，与列表数据保持一致
+            countFuture = CompletableFuture.supplyAsync(DataSourceRoutingContext.propagate(() -> {
+                try (SqlSession countSession = sqlSessionFactory.openSession()) {
+                    return DataSourceRoutingContext.read(() -> countSession.<Integer>selectOne(countStatement, param));
+                }
+            }), COUNT_EXECUTOR);
+        }
+        List<E> rows = query(statementName, param);
+        int total;
+        try {
+            total = countFuture.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        if (cache != null) {
+            cache.put(countKey, total);
+        }
+        return new Page<E>(rows, total);
+    }
+    
+    public <E> Page<E> page(Object param) {
+        return page("query", "count", param);
+    }
+    
+    /**
+     * page() 中 count 结果的缓存时长（毫秒），默认0不缓存
+     * 总数允许短暂滞后的列表可重载此方法
+     * @return long
+     */
+    protected long getCountCacheTtlMillis() {
+        return 0;
+    }
+    
+    private Cache<String, Integer> getCountCache() {
+        long ttl = getCountCacheTtlMillis();
+        if (ttl <= 0) {
+            return null;
+        }
+        Cache<String, Integer> cache = countCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = countCache;
+                if (cache == null) {
+                    cache = Caffeine.newBuilder()
+                            .maximumSize(10000)
+                            .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                            .build();
+                    countCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+    
+    /**
+     * 批量新增
+     * 使用 BATCH 执行器，每 flushSize 条提交一次 JDBC batch，大幅减少网络往返
+     * MySQL 建议在连接串上开启 rewriteBatchedStatements=true，将一批语句改写为多值 INSERT
+     * 存在 Spring 事务时复用事务连接，由事务统一提交或回滚
+     * @param statementName SQL的ID(不包含namespace)
+     * @param entities 实体集合
+     * @param flushSize 每批条数
+     * @return 每批影响行数
+     */
+    public int[] createBatch(String statementName, Collection<?> entities, int flushSize) {
+        return executeBatch(getStatementName(statementName), entities, flushSize, BatchOperation.INSERT);
+    }
+    
+    public int[] modifyBatch(String statementName, Collection<?> entities, int flushSize) {
+        return executeBatch(getStatementName(statementName), entities, flushSize, BatchOperation.UPDATE);
+    }
+    
+    public int[] removeBatch(String statementName, Collection<?> params, int flushSize) {
+        return executeBatch(getStatementName(statementName), params, flushSize, BatchOperation.DELETE);
+    }
+    
+    public int[] createBatch(Collection<?> entities) {
+        return createBatch("create", entities, DEFAULT_BATCH_FLUSH_SIZE);
+    }
+    
+    public int[] modifyBatch(Collection<?> entities) {
+        return modifyBatch("modify", entities, DEFAULT_BATCH_FLUSH_SIZE);
+    }
+    
+    public int[] removeBatch(Collection<?> params) {
+        return removeBatch("remove", params, DEFAULT_BATCH_FLUSH_SIZE);
+    }
+    
+    /**
+     * 多值 INSERT
+     * 按 MultiRowInsert 定义生成 {@code INSERT INTO t (...) VALUES (...),(...)}，每条语句的行数取 maxRows（默认500）、
+     * maxParameters / 列数 与 maxStatementBytes 估算值中的最小者；比 BATCH 执行器少一次逐条解析，适合 MySQL/PostgreSQL 大批量写入
+     * 经 SqlSession 执行，存在 Spring 事务时参与事务
+     * @param spec 多值 INSERT 定义
+     * @param entities 实体集合（Bean 或 Map）
+     * @return 影响行数
+     */
+    public int insertMulti(MultiRowInsert spec, Collection<?> entities) {
+        return executeMultiRow(spec, entities, false);
+    }
+    
+    /**
+     * 多值 UPSERT
+     * MySQL 生成 ON DUPLICATE KEY UPDATE（更新的行计为2），PostgreSQL 生成 ON CONFLICT ... DO UPDATE，H2 生成 MERGE ... KEY
+     * @param spec 多值 INSERT 定义，须声明 keys()
+     * @param entities 实体集合（Bean 或 Map）
+     * @return 影响行数
+     */
+    public int upsertMulti(MultiRowInsert spec, Collection<?> entities) {
+        return executeMultiRow(spec, entities, true);
+    }
+    
+    private int executeMultiRow(MultiRowInsert spec, Collection<?> entities, boolean upsert) {
+        if (entities == null || entities.isEmpty()) {
+            return 0;
+        }
+        Configuration configuration = getSqlSession().getConfiguration();
+        String statement = MultiRowSqlSource.STATEMENT_ID;
+        if (!configuration.hasStatement(statement, false)) {
+            throw new IllegalStateException("多值插入语句未注册，请确认 SqlSessionFactory 由 Spring 容器创建");
+        }
+        int rowsPerStatement = spec.getRowsPerStatement();
+        long maxStatementBytes = spec.getMaxStatementBytes();
+        
+        int total = 0;
+        List<Object> chunk = new ArrayList<Object>(Math.min(rowsPerStatement, entities.size()));
+        long chunkBytes = 0;
+        for (Object entity : entities) {
+            long rowBytes = maxStatementBytes > 0 ? MultiRowSqlSource.estimateRowBytes(configuration, spec, entity) : 0;
+            if (!chunk.isEmpty() && (chunk.size() == rowsPerStatement || (maxStatementBytes > 0 && chunkBytes + rowBytes > maxStatementBytes))) {
+                total += insertChunk(statement, spec, chunk, upsert);
+                chunk = new ArrayList<Object>(chunk.size());
+                chunkBytes = 0;
+            }
+            chunk.add(entity);
+            chunkBytes += rowBytes;
+        }
+        total += insertChunk(statement, spec, chunk, upsert);
+        evictQueryCache();
+        return total;
+    }
+    
+    private int insertChunk(String statement, MultiRowInsert spec, List<Object> rows, boolean upsert) {
+        Map<String, Object> param = new HashMap<String, Object>(4);
+        param.put(MultiRowSqlSource.PARAM_SPEC, spec);
+        param.put(MultiRowSqlSource.PARAM_ROWS, rows);
+        param.put(MultiRowSqlSource.PARAM_UPSERT, upsert);
+        return this.getSqlSession().insert(statement, param);
+    }
+    
+    private enum BatchOperation {
+        INSERT, UPDATE, DELETE
+    }
+    
+    /**
+     * 批量执行
+     * @param statement 完整的SQL ID
+     * @param params 参数集合
+     * @param flushSize 每批条数
+     * @param operation 操作类型
+     * @return 每批影响行数
+     */
+    private int[] executeBatch(String statement, Collection<?> params, int flushSize, BatchOperation operation) {
+        if (params == null || params.isEmpty()) {
+            return new int[0];
+        }
+        if (flushSize <= 0) {
+            throw new IllegalArgumentException("flushSize必须大于0: " + flushSize);
+        }
+        List<Integer> chunkCounts = new ArrayList<Integer>();
+        try (SqlSession batchSession = getSqlSessionFactory().openSession(ExecutorType.BATCH, false)) {
+            int pending = 0;
+            for (Object param : params) {
+                switch (operation) {
+                    case INSERT:
+                        batchSession.insert(statement, param);
+                        break;
+                    case UPDATE:
+                        batchSession.update(statement, param);
+                        break;
+                    default:
+                        batchSession.delete(statement, param);
+                        break;
+                }
+                if (++pending == flushSize) {
+                    chunkCounts.add(sumUpdateCounts(batchSession.flushStatements()));
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                chunkCounts.add(sumUpdateCounts(batchSession.flushStatements()));
+            }
+            batchSession.commit();
+        }
+        evictQueryCache();
+        int[] counts = new int[chunkCounts.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = chunkCounts.get(i);
+        }
+        return counts;
+    }
+    
+    /**
+     * 经查询结果缓存执行读操作，未启用缓存时直接执行
+     * 实际查询标记为只读，开启读写分离时可路由到从库
+     * @param statement 完整的SQL ID
+     * @param param 参数
+     * @param loader 查询函数
+     * @return 查询结果
+     */
+    private <T> T cachedSelect(String statement, Object param, Supplier<T> loader) {
+        Supplier<T> readLoader = () -> DataSourceRoutingContext.read(loader);
+        if (queryCache == null || !isQueryCacheEnabled()) {
+            return readLoader.get();
+        }
+        return queryCache.get(getSqlNamespace(), statement, param, readLoader);
+    }
+    
+    /**
+     * 失效当前命名空间的查询结果缓存与 count 缓存
+     * 写操作后立即失效一次；处于 Spring 事务中时，事务结束后再失效一次，避免事务内读到的未提交数据残留在缓存中
+     */
+    protected void evictQueryCache() {
+        Cache<String, Integer> counts = countCache;
+        if (counts != null) {
+            counts.invalidateAll();
+        }
+        if (queryCache == null || !isQueryCacheEnabled()) {
+            return;
+        }
+        final QueryCache cache = queryCache;
+        final String namespace = getSqlNamespace();
+        cache.evict(namespace);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(namespace);
+                }
+            });
+        }
+    }
+    
+    /**
+     * 汇总一批语句的影响行数
+     * 驱动改写批量语句后可能返回 SUCCESS_NO_INFO(-2)，此时按每条语句影响1行计
+     * @param batchResults
+     * @return
+     */
+    private static int sumUpdateCounts(List<BatchResult> batchResults) {
+        int total = 0;
+        for (BatchResult batchResult : batchResults) {
+            for (int updateCount : batchResult.getUpdateCounts()) {
+                if (updateCount == Statement.SUCCESS_NO_INFO) {
+                    total += 1;
+                } else if (updateCount > 0) {
+                    total += updateCount;
+                }
+            }
+        }
+        return total;
     }
 }
-
@@ -1,12 +1,10 @@
 package com.niko.boot.dao;
 
+import java.lang.reflect.Array;
 import java.util.Collection;
-import java.util.Date;
 import java.util.Map;
+import java.util.function.Predicate;
 
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.MapUtils;
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 
@@ -17,51 +15,51 @@ import org.apache.commons.lang3.math.NumberUtils;
  */
 public class Ognl
 {
+	/**
+	 * 按类型缓存的判空函数，每个类只解析一次，之后为一次 ClassValue 查找
+	 */
+	private static final ClassValue<Predicate<Object>> EMPTY_CHECKS = new ClassValue<Predicate<Object>>()
+	{
+		@Override
+		protected Predicate<Object> computeValue(Class<?> type)
+		{
+			if (CharSequence.class.isAssignableFrom(type))
+			{
+				return o -> ((CharSequence) o).length() == 0;
+			}
+			else if (Collection.class.isAssignableFrom(type))
+			{
+				return o -> ((Collection<?>) o).isEmpty();
+			}
+			else if (Map.class.isAssignableFrom(type))
+			{
+				return o -> ((Map<?, ?>) o).isEmpty();
+			}
+			else if (type.isArray())
+			{
+				// 兼容 int[] 等基本类型数组
+				return o -> Array.getLength(o) == 0;
+			}
+			else
+			{
+				// Date、Number、Boolean 及其他类型：非null即不为空
+				return o -> false;
+			}
+		}
+	};
+
 	/**
 	 * 可以用于判断 Map,Collection,String,Array是否为空
+	 * 其他类型（Date、Number、Boolean等）只判断是否为null
 	 * 
 	 * @param o
 	 * @return
 	 */
-	public static boolean isEmpty(Object o) throws IllegalArgumentException
+	public static boolean isEmpty(Object o)
 	{
 		if (o == null)
 			return true;
-		if (o instanceof String)
-		{
-			return StringUtils.isEmpty((String) o);
-		}
-		else if (o instanceof Collection)
-		{
-			return CollectionUtils.isEmpty((Collection<?>) o);
-		}
-		else if (o.getClass().isArray())
-		{
-			return ArrayUtils.isEmpty((Object[]) o);
-		}
-		else if (o instanceof Map)
-		{
-			MapUtils.isEmpty((Map<?, ?>) o);
-		}
-		else if (o instanceof Date)
-		{
-			return o == null;
-		}
-		else if (o instanceof Number)
-		{
-			return o == null;
-		}
-		else if (o instanceof Boolean)
-		{
-			return o == null;
-		}
-		else
-		{
-			throw new IllegalArgumentException(
-					"Illegal argument type,must be : Map,Collection,Array,String. but was:" + o.getClass());
-		}
-
-		return false;
+		return EMPTY_CHECKS.get(o.getClass()).test(o);
 	}
 
 	/**
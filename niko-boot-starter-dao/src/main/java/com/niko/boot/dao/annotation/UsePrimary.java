@@ -0,0 +1,28 @@
+package com.niko.boot.dao.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 强制走主库
+ * 开启读写分离后，标注的方法（或类中的全部方法）内发起的查询均路由到主库，用于写后立即读（read-your-writes）的场景
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * @UsePrimary
+ * public User createAndGet(User user) {
+ *     userDao.create(user);
+ *     return userDao.get(user.getId());
+ * }
+ * }</pre>
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface UsePrimary {
+}
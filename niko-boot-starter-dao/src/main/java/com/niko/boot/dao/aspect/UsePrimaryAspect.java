@@ -0,0 +1,36 @@
+package com.niko.boot.dao.aspect;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.niko.boot.dao.datasource.DataSourceRoutingContext;
+
+/**
+ * 强制主库切面
+ * 处理 @UsePrimary，在方法执行期间将当前线程的查询路由到主库
+ */
+@Component
+@Aspect
+@Order(0)
+@ConditionalOnProperty(prefix = "niko.datasource.read-write", name = "enabled", havingValue = "true")
+public class UsePrimaryAspect {
+
+    @Pointcut("@annotation(com.niko.boot.dao.annotation.UsePrimary) || @within(com.niko.boot.dao.annotation.UsePrimary)")
+    private void primaryPoint() {
+    }
+
+    @Around("primaryPoint()")
+    public Object around(ProceedingJoinPoint pjp) throws Throwable {
+        DataSourceRoutingContext.enterPrimary();
+        try {
+            return pjp.proceed();
+        } finally {
+            DataSourceRoutingContext.exitPrimary();
+        }
+    }
+}
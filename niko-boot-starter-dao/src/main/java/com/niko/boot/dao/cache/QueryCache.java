@@ -0,0 +1,28 @@
+package com.niko.boot.dao.cache;
+
+import java.util.function.Supplier;
+
+/**
+ * 查询结果缓存
+ * 以 namespace + 语句ID + 规范化参数为 key 缓存 BaseDao 的 get/query/count 结果
+ * 同一 namespace 下发生 create/modify/remove 时整体失效
+ */
+public interface QueryCache {
+
+    /**
+     * 读取缓存，未命中时调用 loader 加载并写入缓存
+     * loader 返回 null 时不缓存
+     * @param namespace 命名空间
+     * @param statementId 完整的SQL ID
+     * @param param 查询参数
+     * @param loader 加载函数
+     * @return 查询结果
+     */
+    <T> T get(String namespace, String statementId, Object param, Supplier<T> loader);
+
+    /**
+     * 失效命名空间下的全部缓存
+     * @param namespace 命名空间
+     */
+    void evict(String namespace);
+}
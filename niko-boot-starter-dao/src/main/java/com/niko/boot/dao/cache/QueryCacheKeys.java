@@ -0,0 +1,97 @@
+package com.niko.boot.dao.cache;
+
+import java.lang.reflect.Array;
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+
+/**
+ * 查询参数规范化
+ * 将 Map、集合、数组、POJO 参数转换为稳定的字符串，内容相同的参数得到相同的结果（Map/POJO 按属性名排序）
+ */
+public class QueryCacheKeys {
+
+    private static final int MAX_DEPTH = 8;
+
+    /**
+     * 规范化查询参数
+     * @param param 查询参数
+     * @return 规范化字符串
+     */
+    public static String canonicalize(Object param) {
+        StringBuilder sb = new StringBuilder();
+        append(sb, param, 0);
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, Object value, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("查询参数嵌套层级过深，无法生成缓存key");
+        }
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof CharSequence) {
+            sb.append('"').append(value).append('"');
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum) {
+            sb.append(value);
+        } else if (value instanceof Date) {
+            sb.append('@').append(((Date) value).getTime());
+        } else if (value instanceof Temporal) {
+            sb.append('@').append(value);
+        } else if (value instanceof Map) {
+            Map<String, Object> sorted = new TreeMap<String, Object>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                sorted.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+            appendEntries(sb, sorted, depth);
+        } else if (value instanceof Collection) {
+            sb.append('[');
+            boolean first = true;
+            for (Object element : (Collection<?>) value) {
+                if (!first) {
+                    sb.append(',');
+                }
+                append(sb, element, depth + 1);
+                first = false;
+            }
+            sb.append(']');
+        } else if (value.getClass().isArray()) {
+            sb.append('[');
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                append(sb, Array.get(value, i), depth + 1);
+            }
+            sb.append(']');
+        } else {
+            MetaObject metaObject = SystemMetaObject.forObject(value);
+            Map<String, Object> sorted = new TreeMap<String, Object>();
+            for (String name : metaObject.getGetterNames()) {
+                sorted.put(name, metaObject.getValue(name));
+            }
+            sb.append(value.getClass().getName());
+            appendEntries(sb, sorted, depth);
+        }
+    }
+
+    private static void appendEntries(StringBuilder sb, Map<String, Object> sorted, int depth) {
+        sb.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            sb.append(entry.getKey()).append('=');
+            append(sb, entry.getValue(), depth + 1);
+            first = false;
+        }
+        sb.append('}');
+    }
+}
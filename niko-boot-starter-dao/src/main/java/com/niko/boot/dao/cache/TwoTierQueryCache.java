@@ -0,0 +1,216 @@
+package com.niko.boot.dao.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 两级查询结果缓存
+ * L1：进程内 Caffeine，容量与 TTL 可配置
+ * L2：Redis 单条 key（key 中带 namespace 版本号，每条各自 TTL），写操作时递增 Redis 中的 namespace 版本号，旧版本 key 不再命中并自然过期
+ * 跨节点 L1 失效通过 Redis 发布订阅广播 namespace，各节点递增本地版本号使旧 key 失效
+ *
+ * <p>启用方式（需引入 spring-boot-starter-data-redis，并提供 RedisTemplate&lt;String, Object&gt;）：</p>
+ * <pre>
+ * niko.dao.query-cache.enabled=true
+ * niko.dao.query-cache.l1-max-size=10000
+ * niko.dao.query-cache.l1-ttl-seconds=60
+ * niko.dao.query-cache.l2-enabled=true
+ * niko.dao.query-cache.l2-ttl-seconds=600
+ * </pre>
+ * DAO 重载 BaseDao.isQueryCacheEnabled() 返回 true 后生效
+ */
+@Component
+@ConditionalOnProperty(prefix = "niko.dao.query-cache", name = "enabled", havingValue = "true")
+public class TwoTierQueryCache implements QueryCache, MeterBinder, InitializingBean, DisposableBean {
+
+    private final static Logger logger = LoggerFactory.getLogger(TwoTierQueryCache.class);
+
+    @Autowired(required = false)
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${niko.dao.query-cache.l1-max-size:10000}")
+    private long l1MaxSize;
+
+    @Value("${niko.dao.query-cache.l1-ttl-seconds:60}")
+    private long l1TtlSeconds;
+
+    @Value("${niko.dao.query-cache.l2-enabled:true}")
+    private boolean l2Enabled;
+
+    @Value("${niko.dao.query-cache.l2-ttl-seconds:600}")
+    private long l2TtlSeconds;
+
+    @Value("${niko.dao.query-cache.key-prefix:niko:qc:}")
+    private String keyPrefix;
+
+    private Cache<String, Object> l1;
+    private RedisMessageListenerContainer listenerContainer;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<String, AtomicLong>();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder l2Misses = new LongAdder();
+
+    @Override
+    public void afterPropertiesSet() {
+        l1 = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfterWrite(Duration.ofSeconds(l1TtlSeconds))
+                .recordStats()
+                .build();
+        if (redisTemplate == null) {
+            l2Enabled = false;
+            logger.warn("未找到 RedisTemplate<String, Object>，查询缓存仅启用 L1");
+            return;
+        }
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisTemplate.getConnectionFactory());
+        listenerContainer.addMessageListener((message, pattern) -> {
+            Object namespace = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (namespace != null) {
+                nextGeneration(namespace.toString());
+            }
+        }, new ChannelTopic(evictChannel()));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(String namespace, String statementId, Object param, Supplier<T> loader) {
+        String field = statementId + "#" + QueryCacheKeys.canonicalize(param);
+        String l1Key = namespace + "#" + generation(namespace).get() + "#" + field;
+        Object value = l1.getIfPresent(l1Key);
+        if (value != null) {
+            return (T) value;
+        }
+        Long l2Version = l2Enabled ? l2Generation(namespace) : null;
+        String l2Key = l2Version == null ? null : l2Key(namespace, l2Version, field);
+        if (l2Key != null) {
+            value = getL2(namespace, l2Key);
+            if (value != null) {
+                l2Hits.increment();
+                l1.put(l1Key, value);
+                return (T) value;
+            }
+            l2Misses.increment();
+        }
+        T loaded = loader.get();
+        if (loaded != null) {
+            l1.put(l1Key, loaded);
+            // 加载期间 namespace 已被失效时不回写，避免旧结果写入 L2
+            if (l2Key != null && l2Version.equals(l2Generation(namespace))) {
+                putL2(namespace, l2Key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public void evict(String namespace) {
+        nextGeneration(namespace);
+        if (!l2Enabled) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().increment(generationKey(namespace));
+            redisTemplate.convertAndSend(evictChannel(), namespace);
+        } catch (Exception e) {
+            logger.warn("查询缓存L2失效失败，namespace: [{}]，错误: {}", namespace, e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("niko.dao.query.cache.gets", l1, c -> c.stats().hitCount())
+                .tag("tier", "l1").tag("result", "hit").register(registry);
+        FunctionCounter.builder("niko.dao.query.cache.gets", l1, c -> c.stats().missCount())
+                .tag("tier", "l1").tag("result", "miss").register(registry);
+        FunctionCounter.builder("niko.dao.query.cache.gets", l2Hits, LongAdder::doubleValue)
+                .tag("tier", "l2").tag("result", "hit").register(registry);
+        FunctionCounter.builder("niko.dao.query.cache.gets", l2Misses, LongAdder::doubleValue)
+                .tag("tier", "l2").tag("result", "miss").register(registry);
+        FunctionCounter.builder("niko.dao.query.cache.evictions", l1, c -> c.stats().evictionCount())
+                .tag("tier", "l1").register(registry);
+        Gauge.builder("niko.dao.query.cache.size", l1, Cache::estimatedSize)
+                .tag("tier", "l1").register(registry);
+    }
+
+    private Object getL2(String namespace, String key) {
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (Exception e) {
+            logger.warn("查询缓存L2读取失败，namespace: [{}]，错误: {}", namespace, e.getMessage());
+            return null;
+        }
+    }
+
+    private void putL2(String namespace, String key, Object value) {
+        try {
+            redisTemplate.opsForValue().set(key, value, Duration.ofSeconds(l2TtlSeconds));
+        } catch (Exception e) {
+            logger.warn("查询缓存L2写入失败，namespace: [{}]，错误: {}", namespace, e.getMessage());
+        }
+    }
+
+    /**
+     * 读取 Redis 中的 namespace 版本号（INCRBY 0，不存在时初始化为 0），读取失败返回 null 并跳过 L2
+     */
+    private Long l2Generation(String namespace) {
+        try {
+            return redisTemplate.opsForValue().increment(generationKey(namespace), 0L);
+        } catch (Exception e) {
+            logger.warn("查询缓存L2版本号读取失败，namespace: [{}]，错误: {}", namespace, e.getMessage());
+            return null;
+        }
+    }
+
+    private String generationKey(String namespace) {
+        return keyPrefix + namespace + ":gen";
+    }
+
+    private String l2Key(String namespace, long generation, String field) {
+        return keyPrefix + namespace + ":" + generation + ":" + field;
+    }
+
+    private AtomicLong generation(String namespace) {
+        return generations.computeIfAbsent(namespace, k -> new AtomicLong());
+    }
+
+    private void nextGeneration(String namespace) {
+        generation(namespace).incrementAndGet();
+    }
+
+    private String evictChannel() {
+        return keyPrefix + "evict";
+    }
+}
@@ -0,0 +1,88 @@
+package com.niko.boot.dao.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 读写分离路由上下文
+ * 记录当前线程是否处于只读查询、是否强制走主库，由 ReadWriteRoutingDataSource 在获取连接时读取
+ * BaseDao 的查询方法会自动标记只读；@UsePrimary 或 primary() 内的查询强制走主库
+ */
+public class DataSourceRoutingContext {
+
+    private static final ThreadLocal<Boolean> READ = new ThreadLocal<Boolean>();
+    private static final ThreadLocal<Integer> PRIMARY_DEPTH = new ThreadLocal<Integer>();
+
+    /**
+     * 以只读方式执行，期间获取的连接可路由到从库
+     * @param action 查询
+     * @return 查询结果
+     */
+    public static <T> T read(Supplier<T> action) {
+        Boolean previous = READ.get();
+        READ.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                READ.remove();
+            } else {
+                READ.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 强制走主库执行，用于写后立即读（read-your-writes）的场景
+     * @param action 查询
+     * @return 查询结果
+     */
+    public static <T> T primary(Supplier<T> action) {
+        enterPrimary();
+        try {
+            return action.get();
+        } finally {
+            exitPrimary();
+        }
+    }
+
+    /**
+     * 捕获当前线程的强制主库状态，返回在其他线程执行时恢复该状态的 Supplier，用于异步查询
+     * 路由状态保存在 ThreadLocal 中，不会自动传递到线程池或虚拟线程
+     * @param action 查询
+     * @return 在任意线程执行时与当前线程路由一致的查询
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> action) {
+        if (PRIMARY_DEPTH.get() == null) {
+            return action;
+        }
+        return () -> primary(action);
+    }
+
+    /**
+     * 进入强制主库区域，可嵌套，须与 exitPrimary() 成对调用
+     */
+    public static void enterPrimary() {
+        Integer depth = PRIMARY_DEPTH.get();
+        PRIMARY_DEPTH.set(depth == null ? 1 : depth + 1);
+    }
+
+    /**
+     * 退出强制主库区域
+     */
+    public static void exitPrimary() {
+        Integer depth = PRIMARY_DEPTH.get();
+        if (depth == null || depth <= 1) {
+            PRIMARY_DEPTH.remove();
+        } else {
+            PRIMARY_DEPTH.set(depth - 1);
+        }
+    }
+
+    /**
+     * 当前线程的查询是否可路由到从库
+     * @return boolean
+     */
+    public static boolean isReplicaPreferred() {
+        return READ.get() != null && PRIMARY_DEPTH.get() == null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.niko.boot.dao.datasource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hikari 连接池指标绑定
+ * 为尚未启动、未配置指标的 HikariDataSource 设置 MicrometerMetricsTrackerFactory，
+ * 输出 hikaricp.connections.active/idle/pending/acquire 等指标
+ * 读写分离的主从连接池在 ReadWriteDataSourceConfiguration 中创建时绑定
+ */
+@Component
+public class HikariMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public HikariMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource && !((HikariDataSource) bean).isRunning()) {
+            bind((HikariDataSource) bean, meterRegistry.getIfAvailable());
+        }
+        return bean;
+    }
+
+    /**
+     * 为连接池配置绑定指标，须在连接池启动前调用；已配置指标时跳过
+     * @param config 连接池配置
+     * @param registry MeterRegistry，为null时跳过
+     */
+    public static void bind(HikariConfig config, MeterRegistry registry) {
+        if (registry != null && config.getMetricRegistry() == null && config.getMetricsTrackerFactory() == null) {
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.niko.boot.dao.datasource;
+
+/**
+ * 从库负载均衡策略
+ */
+public enum LoadBalanceStrategy {
+    /** 轮询 */
+    ROUND_ROBIN,
+    /** 活跃连接数最少 */
+    LEAST_ACTIVE
+}
@@ -0,0 +1,50 @@
+package com.niko.boot.dao.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 读写分离数据源配置
+ * niko.datasource.read-write.enabled=true 时以 ReadWriteRoutingDataSource 作为应用的主 DataSource
+ * Spring Boot 默认的 DataSource 自动配置随之退让，MyBatis 与事务管理器均使用路由数据源
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "niko.datasource.read-write", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadWriteDataSourceProperties.class)
+public class ReadWriteDataSourceConfiguration {
+
+    @Bean
+    @Primary
+    public ReadWriteRoutingDataSource dataSource(ReadWriteDataSourceProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        HikariDataSource primary = createPool(properties.getPrimary(), "niko-primary", registry);
+        List<HikariDataSource> replicas = new ArrayList<HikariDataSource>();
+        List<HikariConfig> replicaConfigs = properties.getReplicas();
+        for (int i = 0; i < replicaConfigs.size(); i++) {
+            HikariConfig replicaConfig = replicaConfigs.get(i);
+            replicaConfig.setReadOnly(true);
+            replicas.add(createPool(replicaConfig, "niko-replica-" + i, registry));
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, properties.getLoadBalance());
+    }
+
+    private static HikariDataSource createPool(HikariConfig config, String defaultPoolName, MeterRegistry registry) {
+        if (config.getPoolName() == null) {
+            config.setPoolName(defaultPoolName);
+        }
+        HikariMetricsPostProcessor.bind(config, registry);
+        return new HikariDataSource(config);
+    }
+}
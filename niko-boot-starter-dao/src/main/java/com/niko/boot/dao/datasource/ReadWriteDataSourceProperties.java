@@ -0,0 +1,64 @@
+package com.niko.boot.dao.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.zaxxer.hikari.HikariConfig;
+
+/**
+ * 读写分离数据源配置
+ * <pre>
+ * niko.datasource.read-write.enabled=true
+ * niko.datasource.read-write.load-balance=least-active
+ * niko.datasource.read-write.primary.jdbc-url=jdbc:mysql://primary:3306/db
+ * niko.datasource.read-write.primary.username=app
+ * niko.datasource.read-write.primary.password=***
+ * niko.datasource.read-write.primary.maximum-pool-size=20
+ * niko.datasource.read-write.replicas[0].jdbc-url=jdbc:mysql://replica1:3306/db
+ * niko.datasource.read-write.replicas[0].username=app
+ * niko.datasource.read-write.replicas[0].password=***
+ * </pre>
+ * primary、replicas[n] 下可使用 HikariConfig 的全部属性
+ */
+@ConfigurationProperties(prefix = "niko.datasource.read-write")
+public class ReadWriteDataSourceProperties {
+
+    private boolean enabled;
+    private LoadBalanceStrategy loadBalance = LoadBalanceStrategy.ROUND_ROBIN;
+    private HikariConfig primary = new HikariConfig();
+    private List<HikariConfig> replicas = new ArrayList<HikariConfig>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public LoadBalanceStrategy getLoadBalance() {
+        return loadBalance;
+    }
+
+    public void setLoadBalance(LoadBalanceStrategy loadBalance) {
+        this.loadBalance = loadBalance;
+    }
+
+    public HikariConfig getPrimary() {
+        return primary;
+    }
+
+    public void setPrimary(HikariConfig primary) {
+        this.primary = primary;
+    }
+
+    public List<HikariConfig> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<HikariConfig> replicas) {
+        this.replicas = replicas;
+    }
+}
@@ -0,0 +1,107 @@
+package com.niko.boot.dao.datasource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * 读写分离路由数据源
+ * 一个主库连接池 + N 个从库连接池
+ * 以下情况走主库：写操作、Spring 事务内的任何操作、@UsePrimary 标注的方法、未通过 BaseDao 查询方法发起的操作
+ * BaseDao 的 get/query/count 等查询在事务外执行时走从库，按 LoadBalanceStrategy 选择
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final String PRIMARY_KEY = "primary";
+    private static final String REPLICA_KEY_PREFIX = "replica-";
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final LoadBalanceStrategy strategy;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, LoadBalanceStrategy strategy) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableList(new ArrayList<HikariDataSource>(replicas));
+        this.strategy = strategy != null ? strategy : LoadBalanceStrategy.ROUND_ROBIN;
+        Map<Object, Object> targets = new HashMap<Object, Object>();
+        targets.put(PRIMARY_KEY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(REPLICA_KEY_PREFIX + i, this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty()
+                || !DataSourceRoutingContext.isReplicaPreferred()
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY_KEY;
+        }
+        return REPLICA_KEY_PREFIX + selectReplica();
+    }
+
+    private int selectReplica() {
+        int size = replicas.size();
+        if (size == 1) {
+            return 0;
+        }
+        if (strategy == LoadBalanceStrategy.LEAST_ACTIVE) {
+            int best = 0;
+            int bestActive = Integer.MAX_VALUE;
+            int offset = Math.floorMod(counter.getAndIncrement(), size);
+            for (int n = 0; n < size; n++) {
+                int i = (offset + n) % size;
+                int active = activeConnections(replicas.get(i));
+                if (active < bestActive) {
+                    best = i;
+                    bestActive = active;
+                }
+            }
+            return best;
+        }
+        return Math.floorMod(counter.getAndIncrement(), size);
+    }
+
+    private static int activeConnections(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool != null ? pool.getActiveConnections() : 0;
+    }
+
+    /**
+     * 主库连接池
+     * @return HikariDataSource
+     */
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * 从库连接池
+     * @return List
+     */
+    public List<HikariDataSource> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void destroy() {
+        for (HikariDataSource replica : replicas) {
+            replica.close();
+        }
+        primary.close();
+    }
+}
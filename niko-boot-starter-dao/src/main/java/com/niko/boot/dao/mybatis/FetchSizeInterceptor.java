@@ -0,0 +1,60 @@
+package com.niko.boot.dao.mybatis;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.stereotype.Component;
+
+/**
+ * JDBC fetchSize 拦截器
+ * 为当前线程上的查询设置 fetchSize，由 BaseDao 的游标/流式查询在调用前后设置与清除
+ * 未设置时保持 mapper 中 fetchSize 属性或全局 defaultFetchSize 的配置
+ * 注意：MySQL 需使用 Integer.MIN_VALUE 或在连接串上开启 useCursorFetch=true 才会真正按批拉取
+ */
+@Component
+@Intercepts({ @Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }) })
+public class FetchSizeInterceptor implements Interceptor {
+
+    private static final ThreadLocal<Integer> FETCH_SIZE = new ThreadLocal<Integer>();
+
+    /**
+     * 设置当前线程的 fetchSize
+     * @param fetchSize
+     */
+    public static void set(int fetchSize) {
+        FETCH_SIZE.set(fetchSize);
+    }
+
+    /**
+     * 清除当前线程的 fetchSize
+     */
+    public static void clear() {
+        FETCH_SIZE.remove();
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        Integer fetchSize = FETCH_SIZE.get();
+        if (fetchSize != null && result instanceof Statement) {
+            ((Statement) result).setFetchSize(fetchSize);
+        }
+        return result;
+    }
+
+    @Override
+    public Object plugin(Object target) {
+        return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+}
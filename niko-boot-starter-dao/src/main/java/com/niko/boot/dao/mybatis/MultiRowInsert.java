@@ -0,0 +1,308 @@
+package com.niko.boot.dao.mybatis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * 多值 INSERT / UPSERT 定义
+ * 描述目标表、列与实体属性的映射、冲突键及数据库方言，由 BaseDao.insertMulti/upsertMulti 分块生成
+ * {@code INSERT INTO t (a,b) VALUES (?,?),(?,?)...} 语句执行
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * private static final MultiRowInsert USER_INSERT = MultiRowInsert.into("t_user", MultiRowInsert.Dialect.MYSQL)
+ *         .column("id", "id")
+ *         .column("user_name", "userName")
+ *         .column("birthday", "birthday", JdbcType.DATE)
+ *         .keys("id");
+ *
+ * userDao.upsertMulti(USER_INSERT, users);
+ * }</pre>
+ * 定义在首次使用后不应再修改，建议声明为常量
+ */
+public class MultiRowInsert {
+
+    /**
+     * 数据库方言
+     */
+    public enum Dialect {
+        /** INSERT ... ON DUPLICATE KEY UPDATE */
+        MYSQL,
+        /** INSERT ... ON CONFLICT (...) DO UPDATE */
+        POSTGRESQL,
+        /** MERGE INTO ... KEY (...) VALUES */
+        H2
+    }
+
+    /** 单条语句默认最大行数 */
+    public static final int DEFAULT_MAX_ROWS = 500;
+
+    /** 单条语句默认最大绑定参数数，MySQL 与 PostgreSQL 均为 65535 */
+    public static final int DEFAULT_MAX_PARAMETERS = 65535;
+
+    /** 单条语句默认估算字节上限，略小于 MySQL 5.7 默认的 max_allowed_packet（4MB），8.0 默认 64MB */
+    public static final long DEFAULT_MAX_STATEMENT_BYTES = 4L * 1024 * 1024 - 64 * 1024;
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*(\\.[A-Za-z_][A-Za-z0-9_$]*)?");
+
+    private final String table;
+    private final Dialect dialect;
+    private final List<String> columns = new ArrayList<String>();
+    private final List<String> properties = new ArrayList<String>();
+    private final List<JdbcType> jdbcTypes = new ArrayList<JdbcType>();
+    private final Set<String> keys = new LinkedHashSet<String>();
+    private final Set<String> updateColumns = new LinkedHashSet<String>();
+    private int maxRows = DEFAULT_MAX_ROWS;
+    private int maxParameters = DEFAULT_MAX_PARAMETERS;
+    private long maxStatementBytes = DEFAULT_MAX_STATEMENT_BYTES;
+
+    private MultiRowInsert(String table, Dialect dialect) {
+        this.table = checkIdentifier(table);
+        this.dialect = dialect;
+    }
+
+    /**
+     * 创建定义
+     * @param table 表名，可带 schema 前缀
+     * @param dialect 数据库方言
+     * @return MultiRowInsert
+     */
+    public static MultiRowInsert into(String table, Dialect dialect) {
+        if (dialect == null) {
+            throw new IllegalArgumentException("dialect不能为空");
+        }
+        return new MultiRowInsert(table, dialect);
+    }
+
+    /**
+     * 添加列
+     * @param column 列名
+     * @param property 实体属性名（Map 时为 key），支持嵌套属性 a.b
+     * @return this
+     */
+    public MultiRowInsert column(String column, String property) {
+        return column(column, property, null);
+    }
+
+    /**
+     * 添加列，指定 JdbcType（值可能为 null 时建议指定）
+     * @param column 列名
+     * @param property 实体属性名
+     * @param jdbcType JdbcType
+     * @return this
+     */
+    public MultiRowInsert column(String column, String property, JdbcType jdbcType) {
+        if (columns.contains(checkIdentifier(column))) {
+            throw new IllegalArgumentException("重复的列: " + column);
+        }
+        if (property == null || property.isEmpty()) {
+            throw new IllegalArgumentException("列[" + column + "]的属性名不能为空");
+        }
+        columns.add(column);
+        properties.add(property);
+        jdbcTypes.add(jdbcType);
+        return this;
+    }
+
+    /**
+     * 冲突键（主键或唯一索引列），upsert 时使用
+     * @param keyColumns 列名，须已通过 column() 声明
+     * @return this
+     */
+    public MultiRowInsert keys(String... keyColumns) {
+        for (String key : keyColumns) {
+            if (!columns.contains(key)) {
+                throw new IllegalArgumentException("冲突键[" + key + "]未声明为列");
+            }
+            keys.add(key);
+        }
+        return this;
+    }
+
+    /**
+     * upsert 冲突时更新的列，默认为除冲突键外的全部列
+     * @param updateColumnNames 列名，须已通过 column() 声明
+     * @return this
+     */
+    public MultiRowInsert updateColumns(String... updateColumnNames) {
+        for (String column : updateColumnNames) {
+            if (!columns.contains(column)) {
+                throw new IllegalArgumentException("更新列[" + column + "]未声明为列");
+            }
+            updateColumns.add(column);
+        }
+        return this;
+    }
+
+    /**
+     * 单条语句最大行数，默认 500
+     * @param maxRows
+     * @return this
+     */
+    public MultiRowInsert maxRows(int maxRows) {
+        if (maxRows <= 0) {
+            throw new IllegalArgumentException("maxRows必须大于0: " + maxRows);
+        }
+        this.maxRows = maxRows;
+        return this;
+    }
+
+    /**
+     * 单条语句最大绑定参数数，默认 65535
+     * @param maxParameters
+     * @return this
+     */
+    public MultiRowInsert maxParameters(int maxParameters) {
+        if (maxParameters <= 0) {
+            throw new IllegalArgumentException("maxParameters必须大于0: " + maxParameters);
+        }
+        this.maxParameters = maxParameters;
+        return this;
+    }
+
+    /**
+     * 单条语句估算字节上限，默认 DEFAULT_MAX_STATEMENT_BYTES，0 表示不限制
+     * MySQL 客户端预编译会将参数内联到 SQL，服务端调大 max_allowed_packet 后可相应调大
+     * @param maxStatementBytes
+     * @return this
+     */
+    public MultiRowInsert maxStatementBytes(long maxStatementBytes) {
+        this.maxStatementBytes = maxStatementBytes;
+        return this;
+    }
+
+    /**
+     * 每条语句的最大行数：maxRows 与 maxParameters / 列数 取小
+     * @return int
+     */
+    public int getRowsPerStatement() {
+        checkColumns();
+        return Math.max(1, Math.min(maxRows, maxParameters / columns.size()));
+    }
+
+    public long getMaxStatementBytes() {
+        return maxStatementBytes;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    public List<String> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    public List<String> getProperties() {
+        return Collections.unmodifiableList(properties);
+    }
+
+    public List<JdbcType> getJdbcTypes() {
+        return Collections.unmodifiableList(jdbcTypes);
+    }
+
+    /**
+     * 生成 SQL
+     * @param rowCount 行数
+     * @param upsert 是否生成 upsert
+     * @return SQL
+     */
+    public String toSql(int rowCount, boolean upsert) {
+        checkColumns();
+        if (upsert && keys.isEmpty()) {
+            throw new IllegalStateException("表[" + table + "]的upsert未声明冲突键keys()");
+        }
+        String columnList = String.join(",", columns);
+        char[] placeholders = new char[columns.size() * 2 - 1];
+        Arrays.fill(placeholders, ',');
+        for (int i = 0; i < placeholders.length; i += 2) {
+            placeholders[i] = '?';
+        }
+        String row = "(" + new String(placeholders) + ")";
+        StringBuilder sql = new StringBuilder(64 + columnList.length() + rowCount * (row.length() + 1));
+        if (upsert && dialect == Dialect.H2) {
+            sql.append("MERGE INTO ").append(table).append(" (").append(columnList).append(") KEY (")
+                    .append(String.join(",", keys)).append(") VALUES ");
+        } else {
+            sql.append("INSERT INTO ").append(table).append(" (").append(columnList).append(") VALUES ");
+        }
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(row);
+        }
+        if (upsert) {
+            appendUpsertClause(sql);
+        }
+        return sql.toString();
+    }
+
+    private void appendUpsertClause(StringBuilder sql) {
+        List<String> updates = new ArrayList<String>();
+        if (updateColumns.isEmpty()) {
+            for (String column : columns) {
+                if (!keys.contains(column)) {
+                    updates.add(column);
+                }
+            }
+        } else {
+            updates.addAll(updateColumns);
+        }
+        switch (dialect) {
+            case MYSQL:
+                sql.append(" ON DUPLICATE KEY UPDATE ");
+                if (updates.isEmpty()) {
+                    String key = keys.iterator().next();
+                    sql.append(key).append('=').append(key);
+                }
+                for (int i = 0; i < updates.size(); i++) {
+                    if (i > 0) {
+                        sql.append(',');
+                    }
+                    sql.append(updates.get(i)).append("=VALUES(").append(updates.get(i)).append(')');
+                }
+                break;
+            case POSTGRESQL:
+                sql.append(" ON CONFLICT (").append(String.join(",", keys)).append(')');
+                if (updates.isEmpty()) {
+                    sql.append(" DO NOTHING");
+                    break;
+                }
+                sql.append(" DO UPDATE SET ");
+                for (int i = 0; i < updates.size(); i++) {
+                    if (i > 0) {
+                        sql.append(',');
+                    }
+                    sql.append(updates.get(i)).append("=EXCLUDED.").append(updates.get(i));
+                }
+                break;
+            default:
+                // H2 使用 MERGE ... KEY，已在语句头部生成
+                break;
+        }
+    }
+
+    private void checkColumns() {
+        if (columns.isEmpty()) {
+            throw new IllegalStateException("表[" + table + "]未声明任何列");
+        }
+    }
+
+    private static String checkIdentifier(String identifier) {
+        if (identifier == null || !IDENTIFIER.matcher(identifier).matches()) {
+            throw new IllegalArgumentException("非法的标识符: " + identifier);
+        }
+        return identifier;
+    }
+}
@@ -0,0 +1,110 @@
+package com.niko.boot.dao.mybatis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * 多值 INSERT / UPSERT 的 SqlSource
+ * 按 MultiRowInsert 定义与本次行数生成 SQL，行数据以附加参数绑定，类型由 UnknownTypeHandler 按值解析
+ * 启动时以固定ID注册到 MyBatis Configuration，经 SqlSession 执行，参与 Spring 事务
+ */
+public class MultiRowSqlSource implements SqlSource {
+
+    /** 注册的语句ID */
+    public static final String STATEMENT_ID = MultiRowSqlSource.class.getName() + ".niko_multi_row_insert";
+
+    /** 参数：MultiRowInsert 定义 */
+    public static final String PARAM_SPEC = "spec";
+    /** 参数：本次插入的行 */
+    public static final String PARAM_ROWS = "rows";
+    /** 参数：是否 upsert */
+    public static final String PARAM_UPSERT = "upsert";
+
+    private final Configuration configuration;
+
+    private MultiRowSqlSource(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * 在 Configuration 中注册语句（已注册时跳过）
+     * 只在启动阶段由 MultiRowStatementRegistrar 调用：Configuration 的语句表不是线程安全的，运行期注册会与并发读取冲突
+     * @param configuration MyBatis Configuration
+     */
+    public static void register(Configuration configuration) {
+        if (configuration.hasStatement(STATEMENT_ID, false)) {
+            return;
+        }
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, STATEMENT_ID,
+                new MultiRowSqlSource(configuration), SqlCommandType.INSERT)
+                .keyGenerator(NoKeyGenerator.INSTANCE)
+                .flushCacheRequired(true)
+                .build();
+        configuration.addMappedStatement(mappedStatement);
+    }
+
+    /**
+     * 估算一行数据内联到 SQL 后的字节数，用于按 maxStatementBytes 分块
+     * @param configuration MyBatis Configuration
+     * @param spec 定义
+     * @param row 行
+     * @return 估算字节数
+     */
+    public static long estimateRowBytes(Configuration configuration, MultiRowInsert spec, Object row) {
+        MetaObject metaObject = configuration.newMetaObject(row);
+        long bytes = 3;
+        for (String property : spec.getProperties()) {
+            Object value = metaObject.getValue(property);
+            if (value == null) {
+                bytes += 5;
+            } else if (value instanceof CharSequence) {
+                // UTF-8 最多 3 字节/字符 + 引号与转义余量
+                bytes += ((CharSequence) value).length() * 3L + 3;
+            } else if (value instanceof byte[]) {
+                // 十六进制字面量
+                bytes += ((byte[]) value).length * 2L + 4;
+            } else {
+                bytes += 32;
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public BoundSql getBoundSql(Object parameterObject) {
+        Map<?, ?> param = (Map<?, ?>) parameterObject;
+        MultiRowInsert spec = (MultiRowInsert) param.get(PARAM_SPEC);
+        List<?> rows = (List<?>) param.get(PARAM_ROWS);
+        boolean upsert = Boolean.TRUE.equals(param.get(PARAM_UPSERT));
+
+        List<String> properties = spec.getProperties();
+        List<JdbcType> jdbcTypes = spec.getJdbcTypes();
+        int columnCount = properties.size();
+        List<ParameterMapping> parameterMappings = new ArrayList<ParameterMapping>(rows.size() * columnCount);
+        BoundSql boundSql = new BoundSql(configuration, spec.toSql(rows.size(), upsert), parameterMappings, parameterObject);
+        for (int r = 0; r < rows.size(); r++) {
+            MetaObject metaObject = configuration.newMetaObject(rows.get(r));
+            for (int c = 0; c < columnCount; c++) {
+                String name = "__mr_" + r + "_" + c;
+                boundSql.setAdditionalParameter(name, metaObject.getValue(properties.get(c)));
+                ParameterMapping.Builder builder = new ParameterMapping.Builder(configuration, name, Object.class);
+                if (jdbcTypes.get(c) != null) {
+                    builder.jdbcType(jdbcTypes.get(c));
+                }
+                parameterMappings.add(builder.build());
+            }
+        }
+        return boundSql;
+    }
+}
@@ -0,0 +1,21 @@
+package com.niko.boot.dao.mybatis;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 多值 INSERT / UPSERT 语句注册
+ * SqlSessionFactory 创建后立即注册 MultiRowSqlSource，保证运行期只读 Configuration 的语句表
+ */
+@Component
+public class MultiRowStatementRegistrar implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof SqlSessionFactory) {
+            MultiRowSqlSource.register(((SqlSessionFactory) bean).getConfiguration());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,209 @@
+package com.niko.boot.dao.mybatis;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * SQL 指标拦截器
+ * 按语句ID记录执行耗时（niko.dao.sql）、返回/影响行数（niko.dao.sql.rows）、参数集合大小（niko.dao.sql.params），
+ * 超过阈值的语句输出 WARN 日志（含绑定后的 SQL）
+ * 游标查询（queryCursor）只记录打开游标的耗时，不记录行数
+ * 百分位直方图按语句ID产生大量时间序列，默认关闭，需要时以 histogram-enabled 开启
+ * 每个语句的指标对象只创建一次，热路径上只有一次 Map 查找与一次 nanoTime
+ *
+ * <pre>
+ * niko.dao.sql-metrics.enabled=true
+ * niko.dao.sql-metrics.slow-threshold-ms=1000
+ * niko.dao.sql-metrics.log-parameters=false
+ * niko.dao.sql-metrics.histogram-enabled=false
+ * </pre>
+ * 可通过 setEnabled() 运行时开关；未注册 MeterRegistry 时只记录慢 SQL
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }),
+        @Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class }),
+        @Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class }),
+        @Signature(type = Executor.class, method = "queryCursor", args = { MappedStatement.class, Object.class, RowBounds.class }) })
+public class SqlMetricsInterceptor implements Interceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlMetricsInterceptor.class);
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${niko.dao.sql-metrics.enabled:true}")
+    private volatile boolean enabled;
+
+    @Value("${niko.dao.sql-metrics.slow-threshold-ms:1000}")
+    private volatile long slowThresholdMillis;
+
+    @Value("${niko.dao.sql-metrics.log-parameters:false}")
+    private volatile boolean logParameters;
+
+    @Value("${niko.dao.sql-metrics.histogram-enabled:false}")
+    private boolean histogramEnabled;
+
+    private final Map<String, StatementMeters> meters = new ConcurrentHashMap<String, StatementMeters>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!enabled) {
+            return invocation.proceed();
+        }
+        Object[] args = invocation.getArgs();
+        MappedStatement mappedStatement = (MappedStatement) args[0];
+        Object parameter = args[1];
+        long start = System.nanoTime();
+        Object result = null;
+        boolean success = false;
+        try {
+            result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (meterRegistry != null) {
+                StatementMeters statementMeters = meters.get(mappedStatement.getId());
+                if (statementMeters == null) {
+                    statementMeters = meters.computeIfAbsent(mappedStatement.getId(), id -> new StatementMeters(meterRegistry, mappedStatement, histogramEnabled));
+                }
+                statementMeters.record(elapsed, success, result, parameter);
+            }
+            if (elapsed >= TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis)) {
+                logSlow(mappedStatement, parameter, args.length == 6 ? (BoundSql) args[5] : null, elapsed);
+            }
+        }
+    }
+
+    private void logSlow(MappedStatement mappedStatement, Object parameter, BoundSql boundSql, long elapsedNanos) {
+        try {
+            BoundSql sql = boundSql != null ? boundSql : mappedStatement.getBoundSql(parameter);
+            String statementSql = sql.getSql().replaceAll("\\s+", " ");
+            if (logParameters) {
+                logger.warn("慢SQL，耗时: {}ms，语句: [{}]，SQL: {}，参数: {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), mappedStatement.getId(), statementSql, parameter);
+            } else {
+                logger.warn("慢SQL，耗时: {}ms，语句: [{}]，SQL: {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), mappedStatement.getId(), statementSql);
+            }
+        } catch (Exception e) {
+            logger.warn("慢SQL，耗时: {}ms，语句: [{}]", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), mappedStatement.getId());
+        }
+    }
+
+    /**
+     * 运行时开关
+     * @param enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 运行时调整慢SQL阈值
+     * @param slowThresholdMillis 毫秒
+     */
+    public void setSlowThresholdMillis(long slowThresholdMillis) {
+        this.slowThresholdMillis = slowThresholdMillis;
+    }
+
+    public void setLogParameters(boolean logParameters) {
+        this.logParameters = logParameters;
+    }
+
+    @Override
+    public Object plugin(Object target) {
+        return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+    /**
+     * 参数集合大小：Collection/Map 为元素数，数组为长度，其余为1，null 为0
+     * @param parameter
+     * @return int
+     */
+    private static int parameterSize(Object parameter) {
+        if (parameter == null) {
+            return 0;
+        }
+        if (parameter instanceof Collection) {
+            return ((Collection<?>) parameter).size();
+        }
+        if (parameter instanceof Map) {
+            return ((Map<?, ?>) parameter).size();
+        }
+        if (parameter.getClass().isArray()) {
+            return Array.getLength(parameter);
+        }
+        return 1;
+    }
+
+    /**
+     * 单个语句的指标
+     */
+    private static class StatementMeters {
+
+        private final Timer successTimer;
+        private final Timer errorTimer;
+        private final DistributionSummary rows;
+        private final DistributionSummary params;
+
+        StatementMeters(MeterRegistry registry, MappedStatement mappedStatement, boolean histogram) {
+            String statement = mappedStatement.getId();
+            String command = mappedStatement.getSqlCommandType().name();
+            successTimer = Timer.builder("niko.dao.sql").tag("statement", statement).tag("command", command).tag("outcome", "success")
+                    .publishPercentileHistogram(histogram).register(registry);
+            errorTimer = Timer.builder("niko.dao.sql").tag("statement", statement).tag("command", command).tag("outcome", "error")
+                    .register(registry);
+            rows = DistributionSummary.builder("niko.dao.sql.rows").tag("statement", statement).tag("command", command)
+                    .publishPercentileHistogram(histogram).register(registry);
+            params = DistributionSummary.builder("niko.dao.sql.params").tag("statement", statement).tag("command", command)
+                    .publishPercentileHistogram(histogram).register(registry);
+        }
+
+        void record(long elapsedNanos, boolean success, Object result, Object parameter) {
+            if (!success) {
+                errorTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+                return;
+            }
+            successTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (result instanceof Collection) {
+                rows.record(((Collection<?>) result).size());
+            } else if (result instanceof Integer) {
+                rows.record((Integer) result);
+            }
+            params.record(parameterSize(parameter));
+        }
+    }
+}
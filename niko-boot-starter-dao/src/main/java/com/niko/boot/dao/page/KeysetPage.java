@@ -0,0 +1,57 @@
+package com.niko.boot.dao.page;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Keyset（Seek）分页结果
+ * 通过 nextToken 续查下一页，不依赖 OFFSET，深度翻页耗时恒定
+ *
+ * @param <E> 行类型
+ */
+public class KeysetPage<E> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<E> rows;
+    private final String nextToken;
+    private final Integer total;
+
+    public KeysetPage(List<E> rows, String nextToken, Integer total) {
+        this.rows = rows;
+        this.nextToken = nextToken;
+        this.total = total;
+    }
+
+    /**
+     * 当前页数据
+     * @return rows
+     */
+    public List<E> getRows() {
+        return rows;
+    }
+
+    /**
+     * 下一页的续查标记，没有下一页时为null
+     * @return nextToken
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    /**
+     * 是否还有下一页
+     * @return hasMore
+     */
+    public boolean isHasMore() {
+        return nextToken != null;
+    }
+
+    /**
+     * 总数，只在首页且指定了count语句时返回，其余为null
+     * @return total
+     */
+    public Integer getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,107 @@
+package com.niko.boot.dao.page;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Keyset 分页续查标记
+ * 将最后一行的排序键编码为 URL 安全的字符串，解码时还原类型
+ * 支持类型：String、整数（Long）、BigInteger、小数（BigDecimal）、Date、LocalDate、LocalDateTime、null
+ */
+public class KeysetToken {
+
+    private static final char SEPARATOR = '\u001f';
+
+    /**
+     * 编码排序键
+     * @param keys 排序键，顺序与 ORDER BY 一致
+     * @return token
+     */
+    public static String encode(Object... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            Object key = keys[i];
+            if (key == null) {
+                sb.append('N');
+            } else if (key instanceof String) {
+                sb.append('S').append(key);
+            } else if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+                sb.append('L').append(key);
+            } else if (key instanceof BigInteger) {
+                sb.append('B').append(key);
+            } else if (key instanceof Number) {
+                sb.append('D').append(new BigDecimal(key.toString()).toPlainString());
+            } else if (key instanceof Date) {
+                sb.append('T').append(((Date) key).getTime());
+            } else if (key instanceof LocalDateTime) {
+                sb.append('I').append(key);
+            } else if (key instanceof LocalDate) {
+                sb.append('A').append(key);
+            } else {
+                throw new IllegalArgumentException("不支持的排序键类型: " + key.getClass().getName());
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码排序键
+     * @param token
+     * @return 排序键
+     */
+    public static Object[] decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("非法的分页标记: " + token, e);
+        }
+        String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+        Object[] keys = new Object[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (part.isEmpty()) {
+                throw new IllegalArgumentException("非法的分页标记: " + token);
+            }
+            try {
+                keys[i] = decodeKey(part.charAt(0), part.substring(1));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                // 篡改的标记可能导致数字或日期解析失败
+                throw new IllegalArgumentException("非法的分页标记: " + token, e);
+            }
+        }
+        return keys;
+    }
+
+    private static Object decodeKey(char type, String value) {
+        switch (type) {
+            case 'N':
+                return null;
+            case 'S':
+                return value;
+            case 'L':
+                return Long.valueOf(value);
+            case 'B':
+                return new BigInteger(value);
+            case 'D':
+                return new BigDecimal(value);
+            case 'T':
+                return new Date(Long.parseLong(value));
+            case 'I':
+                return LocalDateTime.parse(value);
+            case 'A':
+                return LocalDate.parse(value);
+            default:
+                throw new IllegalArgumentException("未知的排序键类型: " + type);
+        }
+    }
+}
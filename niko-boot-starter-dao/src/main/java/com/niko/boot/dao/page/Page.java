@@ -0,0 +1,39 @@
+package com.niko.boot.dao.page;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 分页结果
+ * 当前页数据与总数
+ *
+ * @param <E> 行类型
+ */
+public class Page<E> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<E> rows;
+    private final int total;
+
+    public Page(List<E> rows, int total) {
+        this.rows = rows;
+        this.total = total;
+    }
+
+    /**
+     * 当前页数据
+     * @return rows
+     */
+    public List<E> getRows() {
+        return rows;
+    }
+
+    /**
+     * 总数
+     * @return total
+     */
+    public int getTotal() {
+        return total;
+    }
+}
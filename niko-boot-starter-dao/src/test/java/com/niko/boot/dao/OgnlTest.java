@@ -0,0 +1,105 @@
+package com.niko.boot.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class OgnlTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OgnlTest.class);
+
+    @Test
+    void emptyValues() {
+        assertTrue(Ognl.isEmpty(null));
+        assertTrue(Ognl.isEmpty(""));
+        assertTrue(Ognl.isEmpty(new StringBuilder()));
+        assertTrue(Ognl.isEmpty(Collections.emptyList()));
+        assertTrue(Ognl.isEmpty(Set.of()));
+        assertTrue(Ognl.isEmpty(new HashMap<String, Object>()));
+        assertTrue(Ognl.isEmpty(new Object[0]));
+        assertTrue(Ognl.isEmpty(new int[0]));
+        assertTrue(Ognl.isEmpty(new long[0]));
+    }
+
+    @Test
+    void nonEmptyValues() {
+        assertFalse(Ognl.isEmpty(" "));
+        assertFalse(Ognl.isEmpty(List.of(1)));
+        assertFalse(Ognl.isEmpty(Map.of("k", "v")));
+        assertFalse(Ognl.isEmpty(new String[] { "a" }));
+        assertFalse(Ognl.isEmpty(new int[] { 0 }));
+        assertFalse(Ognl.isEmpty(0));
+        assertFalse(Ognl.isEmpty(Boolean.FALSE));
+        assertFalse(Ognl.isEmpty(new Date()));
+        assertFalse(Ognl.isEmpty(new Object()));
+    }
+
+    @Test
+    void isNotEmptyVarargs() {
+        assertTrue(Ognl.isNotEmpty("a", List.of(1), new int[] { 1 }));
+        assertFalse(Ognl.isNotEmpty("a", new int[0]));
+        assertFalse(Ognl.isNotEmpty((Object[]) null));
+    }
+
+    @Test
+    void matchesInstanceofChain() {
+        List<Object> values = Arrays.asList(null, "", "a", new ArrayList<Object>(), List.of(1), new HashMap<Object, Object>(),
+                Map.of(1, 2), new Object[0], new Object[] { 1 }, 1, 2L, BigDecimal.ONE, new Date(), Boolean.TRUE);
+        for (Object value : values) {
+            assertEquals(instanceofChain(value), Ognl.isEmpty(value), () -> String.valueOf(value));
+        }
+
+        int rounds = 2_000_000;
+        boolean sink = false;
+        for (int i = 0; i < rounds; i++) {
+            Object value = values.get(i % values.size());
+            sink ^= Ognl.isEmpty(value) ^ instanceofChain(value);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink ^= Ognl.isEmpty(values.get(i % values.size()));
+        }
+        long classValueNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink ^= instanceofChain(values.get(i % values.size()));
+        }
+        long chainNanos = System.nanoTime() - start;
+        // 只记录耗时，不做断言，避免受测试机器负载影响
+        log.info("{} calls: ClassValue {} ms, instanceof chain {} ms ({})", rounds, classValueNanos / 1_000_000,
+                chainNanos / 1_000_000, sink);
+    }
+
+    /** 改为 ClassValue 分派前的判空逻辑（已修正基本类型数组与 Map 的分支） */
+    private static boolean instanceofChain(Object o) {
+        if (o == null) {
+            return true;
+        }
+        if (o instanceof String) {
+            return ((String) o).length() == 0;
+        } else if (o instanceof Collection) {
+            return ((Collection<?>) o).isEmpty();
+        } else if (o instanceof Map) {
+            return ((Map<?, ?>) o).isEmpty();
+        } else if (o.getClass().isArray()) {
+            return Array.getLength(o) == 0;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,218 @@
+package com.niko.boot.dao.mybatis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.niko.boot.dao.BaseDao;
+
+/**
+ * 在 H2 上对比多值 INSERT 与 BATCH 执行器
+ */
+class MultiRowInsertTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MultiRowInsertTest.class);
+
+    private Connection keepAlive;
+
+    private SqlSession sqlSession;
+
+    private UserDao dao;
+
+    private final AtomicInteger executedStatements = new AtomicInteger();
+
+    interface UserMapper {
+
+        @Insert("INSERT INTO t_user (id, user_name, score) VALUES (#{id}, #{userName}, #{score})")
+        int create(Map<String, Object> row);
+
+        @Select("SELECT id, user_name, score FROM t_user ORDER BY id")
+        List<Map<String, Object>> query();
+    }
+
+    static class UserDao extends BaseDao {
+
+        private final SqlSession sqlSession;
+
+        UserDao(SqlSession sqlSession) {
+            this.sqlSession = sqlSession;
+        }
+
+        @Override
+        protected SqlSession getSqlSession() {
+            return sqlSession;
+        }
+
+        @Override
+        protected String getSqlNamespace() {
+            return UserMapper.class.getName();
+        }
+    }
+
+    /** 统计经 Executor 执行的写语句条数 */
+    @Intercepts(@Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }))
+    class CountingInterceptor implements Interceptor {
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            executedStatements.incrementAndGet();
+            return invocation.proceed();
+        }
+
+        @Override
+        public void setProperties(Properties properties) {
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        keepAlive = dataSource.getConnection();
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("CREATE TABLE t_user (id BIGINT PRIMARY KEY, user_name VARCHAR(64), score INT)");
+        }
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addMapper(UserMapper.class);
+        configuration.addInterceptor(new CountingInterceptor());
+        // 启动阶段由 MultiRowStatementRegistrar 完成
+        MultiRowSqlSource.register(configuration);
+        sqlSession = new SqlSessionTemplate(new SqlSessionFactoryBuilder().build(configuration));
+        dao = new UserDao(sqlSession);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        keepAlive.close();
+    }
+
+    @Test
+    void defaultStatementBytesBelowMysqlPacketSize() {
+        MultiRowInsert spec = MultiRowInsert.into("t_user", MultiRowInsert.Dialect.MYSQL).column("id", "id");
+        assertEquals(MultiRowInsert.DEFAULT_MAX_STATEMENT_BYTES, spec.getMaxStatementBytes());
+        assertTrue(spec.getMaxStatementBytes() < 4L * 1024 * 1024);
+    }
+
+    @Test
+    void insertMultiMatchesBatchExecutor() {
+        List<Map<String, Object>> rows = rows(0, 5000, "u");
+
+        executedStatements.set(0);
+        long start = System.nanoTime();
+        int[] batchCounts = dao.createBatch("create", rows, 1000);
+        long batchNanos = System.nanoTime() - start;
+        int batchStatements = executedStatements.get();
+        List<Map<String, Object>> batchResult = query();
+        truncate();
+
+        executedStatements.set(0);
+        start = System.nanoTime();
+        int inserted = dao.insertMulti(spec(), rows);
+        long multiNanos = System.nanoTime() - start;
+        int multiStatements = executedStatements.get();
+        List<Map<String, Object>> multiResult = query();
+
+        assertEquals(rows.size(), Arrays.stream(batchCounts).sum());
+        assertEquals(rows.size(), inserted);
+        assertEquals(batchResult, multiResult);
+        assertEquals(rows.size(), multiResult.size());
+        // BATCH 执行器逐行调用 update，多值 INSERT 每 500 行一条语句
+        assertEquals(rows.size(), batchStatements);
+        assertEquals(rows.size() / MultiRowInsert.DEFAULT_MAX_ROWS, multiStatements);
+        log.info("{} rows: BATCH {} ms / {} calls, multi-row {} ms / {} statements", rows.size(),
+                batchNanos / 1_000_000, batchStatements, multiNanos / 1_000_000, multiStatements);
+    }
+
+    @Test
+    void upsertMultiUpdatesExistingRows() {
+        dao.insertMulti(spec(), rows(0, 100, "old"));
+
+        dao.upsertMulti(spec().keys("id"), rows(50, 150, "new"));
+
+        List<Map<String, Object>> result = query();
+        assertEquals(150, result.size());
+        assertEquals("old-49", result.get(49).get("USER_NAME"));
+        assertEquals("new-50", result.get(50).get("USER_NAME"));
+        assertEquals("new-149", result.get(149).get("USER_NAME"));
+    }
+
+    @Test
+    void splitsStatementsByEstimatedBytes() {
+        // id 取三位数，每行估算字节数相同
+        List<Map<String, Object>> rows = rows(100, 200, "x".repeat(60));
+        long rowBytes = MultiRowSqlSource.estimateRowBytes(sqlSession.getConfiguration(), spec(), rows.get(0));
+
+        executedStatements.set(0);
+        int inserted = dao.insertMulti(spec().maxStatementBytes(rowBytes * 10), rows);
+
+        assertEquals(rows.size(), inserted);
+        assertEquals(rows.size(), query().size());
+        assertEquals(10, executedStatements.get());
+    }
+
+    private MultiRowInsert spec() {
+        return MultiRowInsert.into("t_user", MultiRowInsert.Dialect.H2)
+                .column("id", "id")
+                .column("user_name", "userName")
+                .column("score", "score");
+    }
+
+    private static List<Map<String, Object>> rows(int from, int to, String prefix) {
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>(to - from);
+        for (int i = from; i < to; i++) {
+            Map<String, Object> row = new HashMap<String, Object>();
+            row.put("id", (long) i);
+            row.put("userName", prefix + "-" + i);
+            row.put("score", i % 100);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<Map<String, Object>> query() {
+        return sqlSession.selectList(UserMapper.class.getName() + ".query");
+    }
+
+    private void truncate() {
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("TRUNCATE TABLE t_user");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
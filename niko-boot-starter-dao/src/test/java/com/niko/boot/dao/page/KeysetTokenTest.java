@@ -0,0 +1,77 @@
+package com.niko.boot.dao.page;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+class KeysetTokenTest {
+
+    @Test
+    void roundTripsSupportedTypes() {
+        Object[] keys = { "名称", 42L, new BigInteger("123456789012345678901234567890"), new BigDecimal("3.14"),
+                new Date(1_700_000_000_123L), LocalDateTime.of(2024, 2, 29, 12, 30, 15, 1_000), LocalDate.of(2024, 1, 1), null };
+
+        assertArrayEquals(keys, KeysetToken.decode(KeysetToken.encode(keys)));
+    }
+
+    @Test
+    void integersDecodeAsLong() {
+        Object[] keys = KeysetToken.decode(KeysetToken.encode(1, (short) 2, (byte) 3));
+
+        assertArrayEquals(new Object[] { 1L, 2L, 3L }, keys);
+    }
+
+    @Test
+    void bigIntegerBeyondLongRange() {
+        BigInteger key = BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE);
+
+        assertEquals(key, KeysetToken.decode(KeysetToken.encode(key))[0]);
+    }
+
+    @Test
+    void floatingPointDecodesAsBigDecimal() {
+        assertEquals(new BigDecimal("0.5"), KeysetToken.decode(KeysetToken.encode(0.5d))[0]);
+    }
+
+    @Test
+    void emptyStringKey() {
+        assertArrayEquals(new Object[] { "", "a" }, KeysetToken.decode(KeysetToken.encode("", "a")));
+    }
+
+    @Test
+    void rejectsUnsupportedType() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetToken.encode(new Object()));
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        assertInvalid("not base64!");
+        assertInvalid(token(""));
+        assertInvalid(token("X1"));
+        assertInvalid(token("Labc"));
+        assertInvalid(token("B1.5"));
+        assertInvalid(token("Dx"));
+        assertInvalid(token("T"));
+        assertInvalid(token("I2024-13-01T00:00"));
+        assertInvalid(token("A2024-02-30"));
+    }
+
+    private static void assertInvalid(String token) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> KeysetToken.decode(token));
+        assertEquals("非法的分页标记: " + token, e.getMessage());
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -77,6 +77,48 @@ public class BaseRestController {
         }
     }
     
+    /**
+     * 导出Excel（流式）
+     * 数据边读边写直接输出至响应流，不在内存中缓存整个文件
+     * 数据源实现了AutoCloseable（如MyBatis Cursor）时，导出结束后自动关闭
+     * @param rows 行数据源
+     * @param fileName 文件名
+     * @param title 标题
+     * @param headerNames 表头名称
+     * @param dataColumns 数据列
+     * @param exportType 导出类型（xlsx/xls）
+     */
+    public void exportStream(Iterable<?> rows, String fileName, String title, String headerNames, String dataColumns, String exportType) {
+        ServletOutputStream out = null;
+        try {
+            try {
+                response.reset(); // 清空输出流
+                response.setHeader("Content-Disposition", "attachment; filename="
+                        + java.net.URLEncoder.encode(fileName, "UTF-8")
+                        + "_"
+                        + TimeUtil.formatDate(new Date(), "yyyyMMdd_HHmmss") + "." + "xlsx");
+                if (exportType.equals("xlsx")) {
+                    response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet;charset=UTF-8"); // 定义输出类型:xlsx
+                } else {
+                    response.setContentType("application/msexcel;charset=UTF-8"); // 定义输出类型:xls
+                }
+                out = response.getOutputStream();
+                POIUtil.writeExcel(out, 
+                        fileName, 
+                        title, 
+                        headerNames, 
+                        dataColumns, 
+                        rows);
+                out.flush();
+            } finally {
+                if (out != null) out.close();
+                if (rows instanceof AutoCloseable) ((AutoCloseable) rows).close();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+    
     /**
      * 导出_包含单个Table（不含基础控件）
      * @param jasperFileName 模板文件名
@@ -110,5 +152,28 @@ public class BaseRestController {
     public void exportRptMultiTable(String rptTemplateName, String rptFileName, String rptFileFormat, Map<String, ?> rptBizDatasetKV, LinkedHashMap<String, List<?>> rptBizDatasetTableKV, Class<?>... rptBizDatasetTableClazzes) throws Exception {
         JasperUtil.export(response, rptTemplateName, rptFileName, rptFileFormat, rptBizDatasetKV, rptBizDatasetTableKV, rptBizDatasetTableClazzes);
     }
+    
+    /**
+     * 导出_包含多个Table控件（流式数据源）
+     * @param rptTemplateName 模板文件名
+     * @param rptFileName 生成文件名
+     * @param rptFileFormat 生成文件格式(包括："pdf"/"xlsx"/"html")
+     * @param rptBizDatasetKV 基础控件业务数据集（KEY-VALUE）
+     * @param rptBizDatasetTableKV Table控件流式业务数据集（KEY-VALUE），如MyBatis Cursor
+     * @throws Exception
+     */
+    public void exportRptStream(String rptTemplateName, String rptFileName, String rptFileFormat, Map<String, ?> rptBizDatasetKV, LinkedHashMap<String, ? extends Iterable<?>> rptBizDatasetTableKV) throws Exception {
+        JasperUtil.exportStream(response, rptTemplateName, rptFileName, rptFileFormat, rptBizDatasetKV, rptBizDatasetTableKV);
+    }
+    
+    /**
+     * 导出_多个报表模板并行填充后合并为一个文件
+     * @param rptFileName 生成文件名
+     * @param rptFileFormat 生成文件格式(包括："pdf"/"xlsx"/"html")
+     * @param rptSections 报表段（每段对应一个模板及其数据集）
+     * @throws Exception
+     */
+    public void exportRptParallel(String rptFileName, String rptFileFormat, List<JasperUtil.RptSection> rptSections) throws Exception {
+        JasperUtil.exportParallel(response, rptFileName, rptFileFormat, rptSections);
+    }
 }
-
@@ -0,0 +1,63 @@
+package com.niko.boot.web.util;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+/**
+ * 流式报表数据源
+ * 逐行读取 Iterable（如 MyBatis Cursor），不要求数据预先加载到 List
+ * 行数据支持 Map 与 POJO 两种类型，按字段名取值
+ * 注意：数据只能遍历一次，不支持 moveFirst
+ */
+public class JRIterableDataSource implements JRDataSource {
+
+    private final Iterator<?> iterator;
+    private Object current;
+    private BeanWrapper currentWrapper;
+
+    public JRIterableDataSource(Iterable<?> rows) {
+        this.iterator = rows.iterator();
+    }
+
+    public JRIterableDataSource(Iterator<?> iterator) {
+        this.iterator = iterator;
+    }
+
+    @Override
+    public boolean next() throws JRException {
+        if (!iterator.hasNext()) {
+            current = null;
+            currentWrapper = null;
+            return false;
+        }
+        current = iterator.next();
+        currentWrapper = null;
+        return true;
+    }
+
+    @Override
+    public Object getFieldValue(JRField jrField) throws JRException {
+        if (current == null) {
+            return null;
+        }
+        String fieldName = jrField.getName();
+        if (current instanceof Map) {
+            return ((Map<?, ?>) current).get(fieldName);
+        }
+        try {
+            if (currentWrapper == null) {
+                currentWrapper = PropertyAccessorFactory.forBeanPropertyAccess(current);
+            }
+            return currentWrapper.getPropertyValue(fieldName);
+        } catch (Exception e) {
+            throw new JRException("读取字段[" + fieldName + "]失败：" + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.niko.boot.web.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+
+/**
+ * 报表模板预编译工具
+ * 构建期将 .jrxml 编译为 .jasper，运行时由 JasperUtil 直接加载，省去首次导出的编译耗时
+ * 由 niko-boot-parent 中 exec-maven-plugin 的 niko-jasper-compile 执行调用
+ *
+ * <p>参数：</p>
+ * <ul>
+ *   <li>args[0]：.jrxml 所在目录，默认 src/main/resources/templates/rpt</li>
+ *   <li>args[1]：.jasper 输出目录，默认 target/classes/templates/rpt</li>
+ * </ul>
+ */
+public class JasperTemplateCompiler {
+
+    public static void main(String[] args) throws IOException, JRException {
+        Path sourceDir = Paths.get(args.length > 0 ? args[0] : "src/main/resources/templates/rpt");
+        Path outputDir = Paths.get(args.length > 1 ? args[1] : "target/classes/templates/rpt");
+        int count = compile(sourceDir, outputDir);
+        System.out.println("[niko-jasper-compile] 编译报表模板 " + count + " 个：" + sourceDir + " -> " + outputDir);
+    }
+
+    /**
+     * 编译目录下全部 .jrxml
+     * @param sourceDir .jrxml 所在目录
+     * @param outputDir .jasper 输出目录
+     * @return 编译数量
+     * @throws IOException
+     * @throws JRException
+     */
+    public static int compile(Path sourceDir, Path outputDir) throws IOException, JRException {
+        if (!Files.isDirectory(sourceDir)) {
+            return 0;
+        }
+        List<Path> jrxmlFiles;
+        try (Stream<Path> files = Files.list(sourceDir)) {
+            jrxmlFiles = files.filter(f -> f.getFileName().toString().endsWith(".jrxml")).collect(Collectors.toList());
+        }
+        Files.createDirectories(outputDir);
+        for (Path jrxmlFile : jrxmlFiles) {
+            String fileName = jrxmlFile.getFileName().toString();
+            File jasperFile = outputDir.resolve(fileName.substring(0, fileName.length() - ".jrxml".length()) + ".jasper").toFile();
+            JasperCompileManager.compileReportToFile(jrxmlFile.toString(), jasperFile.getPath());
+        }
+        return jrxmlFiles.size();
+    }
+}
@@ -1,37 +1,59 @@
 package com.niko.boot.web.util;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.util.ResourceUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StringUtils;
 
 import net.sf.jasperreports.engine.DefaultJasperReportsContext;
 import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JREmptyDataSource;
 import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRVirtualizer;
 import net.sf.jasperreports.engine.JasperCompileManager;
 import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
-import net.sf.jasperreports.engine.JasperRunManager;
+import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
 import net.sf.jasperreports.engine.data.JRMapCollectionDataSource;
 import net.sf.jasperreports.engine.export.HtmlExporter;
 import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSwapFile;
 import net.sf.jasperreports.export.SimpleExporterInput;
 import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
 import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
 import net.sf.jasperreports.export.SimpleXlsxReportConfiguration;
+import net.sf.jasperreports.pdf.JRPdfExporter;
 
 /**
  * JasperReports报表工具类
@@ -39,7 +61,38 @@ import net.sf.jasperreports.export.SimpleXlsxReportConfiguration;
  */
 public class JasperUtil {
     
-    @SuppressWarnings("unchecked")
+    private final static Logger log = LoggerFactory.getLogger(JasperUtil.class);
+    
+    private final static String RPT_TEMPLATE_DIR = "templates/rpt/";
+    private final static String JRXML_SUFFIX = ".jrxml";
+    private final static String JASPER_SUFFIX = ".jasper";
+    private final static PathMatchingResourcePatternResolver RESOURCE_RESOLVER = new PathMatchingResourcePatternResolver();
+    
+    /** 已编译报表模板缓存，KEY为模板文件名 */
+    private final static Map<String, CachedReport> REPORT_CACHE = new ConcurrentHashMap<String, CachedReport>();
+    private final static Map<String, Object> REPORT_LOCKS = new ConcurrentHashMap<String, Object>();
+    
+    /** 开发模式：模板变更后自动重新编译 */
+    private static volatile boolean devMode = Boolean.getBoolean("niko.jasper.dev-mode");
+    
+    /** 分页交换：内存中保留的最大页数，小于等于0不启用 */
+    private static volatile int virtualizerMaxSize = Integer.getInteger("niko.jasper.virtualizer.max-size", 0);
+    private static volatile String virtualizerSwapDirectory = System.getProperty("java.io.tmpdir");
+    private final static int SWAP_BLOCK_SIZE = 4096;
+    private final static int SWAP_MIN_GROW_COUNT = 100;
+    
+    /** 并行填充线程池，填充为CPU密集型，线程数与CPU核数一致 */
+    private final static ExecutorService FILL_EXECUTOR = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "niko-jasper-fill-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    
     /**
      * 导出报表
      * @param response
@@ -52,20 +105,104 @@ public class JasperUtil {
      * @throws Exception
      */
     public static void export(HttpServletResponse response, String jasperFileName, String rptFileName, String rptFileFormat, Map<String, ?> rptBizDatasetKV, LinkedHashMap<String, List<?>> rptBizDatasetTableKV, Class<?>... rptBizDatasetTableClazzes) throws Exception {
+        // 0.基础控件数据采用JRDataSource来传参
+        JRDataSource rptBizDatasetDS = buildBizDatasetDS(rptBizDatasetKV);
+        
+        // 1.Table控件数据采用Map<>来传参
+        Map<String, Object> rptBizDatasetTableParams = buildBizDatasetTableParams(rptBizDatasetTableKV, rptBizDatasetTableClazzes);
+        
+        // 3.按文件格式导出
+        exportByFormat(response, jasperFileName, rptFileName, rptBizDatasetTableParams, rptBizDatasetDS, rptFileFormat);
+    }
+    
+    /**
+     * 导出报表（多模板并行填充）
+     * 各报表段相互独立，按CPU核数并行填充后合并导出为一个文件（PDF/HTML顺序拼接，XLSX按段分Sheet）
+     * @param response
+     * @param rptFileName 报表文件名
+     * @param rptFileFormat 报表格式
+     * @param rptSections 报表段
+     * @throws Exception
+     */
+    public static void exportParallel(HttpServletResponse response, String rptFileName, String rptFileFormat, List<RptSection> rptSections) throws Exception {
+        exportParallel(response, rptFileName, rptFileFormat, rptSections, FILL_EXECUTOR);
+    }
+    
+    /**
+     * 导出报表（多模板并行填充，指定填充线程池）
+     * @param response
+     * @param rptFileName 报表文件名
+     * @param rptFileFormat 报表格式
+     * @param rptSections 报表段
+     * @param fillExecutor 填充线程池
+     * @throws Exception
+     */
+    public static void exportParallel(HttpServletResponse response, String rptFileName, String rptFileFormat, List<RptSection> rptSections, Executor fillExecutor) throws Exception {
+        List<JRVirtualizer> virtualizers = new ArrayList<JRVirtualizer>();
+        try {
+            List<CompletableFuture<JasperPrint>> futures = new ArrayList<CompletableFuture<JasperPrint>>();
+            for (RptSection rptSection : rptSections) {
+                // 数据源与模板在调用线程准备，填充交给线程池
+                JasperReport jasperReport = getReport(rptSection.jasperFileName);
+                JRDataSource rptBizDatasetDS = buildBizDatasetDS(rptSection.rptBizDatasetKV);
+                Map<String, Object> rptBizDatasetTableParams = buildBizDatasetTableParams(rptSection.rptBizDatasetTableKV, rptSection.rptBizDatasetTableClazzes);
+                JRVirtualizer virtualizer = createVirtualizer();
+                if (virtualizer != null) {
+                    virtualizers.add(virtualizer);
+                    rptBizDatasetTableParams.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+                }
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return JasperFillManager.fillReport(jasperReport, rptBizDatasetTableParams, rptBizDatasetDS);
+                    } catch (JRException e) {
+                        throw new CompletionException(e);
+                    }
+                }, fillExecutor));
+            }
+            List<JasperPrint> jasperPrints = new ArrayList<JasperPrint>();
+            try {
+                for (CompletableFuture<JasperPrint> future : futures) {
+                    jasperPrints.add(future.join());
+                }
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+            exportPrints(response, rptFileName, rptFileFormat, jasperPrints);
+        } finally {
+            for (JRVirtualizer virtualizer : virtualizers) {
+                virtualizer.cleanup();
+            }
+        }
+    }
+    
+    /**
+     * 基础控件数据源
+     * @param rptBizDatasetKV
+     * @return
+     */
+    private static JRDataSource buildBizDatasetDS(Map<String, ?> rptBizDatasetKV) {
+        if (rptBizDatasetKV == null) {
+            return new JREmptyDataSource();
+        }
+        List<Map<String, ?>> rptBizDatasetKVs = new ArrayList<Map<String, ?>>();
+        rptBizDatasetKVs.add(rptBizDatasetKV);
+        return new JRMapCollectionDataSource(rptBizDatasetKVs);
+    }
+    
+    /**
+     * Table控件数据参数
+     * 直接包装原List，不再复制
+     * @param rptBizDatasetTableKV
+     * @param rptBizDatasetTableClazzes
+     * @return
+     * @throws Exception
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> buildBizDatasetTableParams(LinkedHashMap<String, List<?>> rptBizDatasetTableKV, Class<?>... rptBizDatasetTableClazzes) throws Exception {
         // 校验
         if (rptBizDatasetTableKV.size() != rptBizDatasetTableClazzes.length) {
             throw new Exception("参数[rptBizDatasetTableKV]与[rptBizDatasetTableClazzes]长度不一致！");
         }
-        
-        // 0.基础控件数据采用JRDataSource来传参
-        JRDataSource rptBizDatasetDS = new JREmptyDataSource();
-        if (rptBizDatasetKV != null) {
-            List<Map<String, ?>> rptBizDatasetKVs = new ArrayList<Map<String, ?>>();
-            rptBizDatasetKVs.add(rptBizDatasetKV);
-            rptBizDatasetDS = new JRMapCollectionDataSource(rptBizDatasetKVs);
-        }
-        
-        // 1.Table控件数据采用Map<>来传参
         Map<String, Object> rptBizDatasetTableParams = new HashMap<String, Object>();
         int index = 0;
         for (Entry<String, List<?>> entry : rptBizDatasetTableKV.entrySet()) {
@@ -77,26 +214,50 @@ public class JasperUtil {
                 throw new RuntimeException("数据类型不能为空！");
             }
             if (Object.class.getName().equals(clazzName)) {
-                List<Object> subRptData = new ArrayList<Object>();
-                subRptData.addAll(bizDatasetTableV);
-                subRptDataSource = new JRBeanCollectionDataSource(subRptData);
-            } else if (Map.class.getName().equals(clazzName)) {
-                List<Map<String, ?>> subRptData = new ArrayList<Map<String, ?>>();
-                subRptData.addAll((Collection<? extends Map<String, ?>>) bizDatasetTableV);
-                subRptDataSource = new JRMapCollectionDataSource(subRptData);
-            } else if (HashMap.class.getName().equals(clazzName)) {
-                List<Map<String, ?>> subRptData = new ArrayList<Map<String, ?>>();
-                subRptData.addAll((Collection<? extends Map<String, ?>>) bizDatasetTableV);
-                subRptDataSource = new JRMapCollectionDataSource(subRptData);
+                subRptDataSource = new JRBeanCollectionDataSource(bizDatasetTableV);
+            } else if (Map.class.getName().equals(clazzName) || HashMap.class.getName().equals(clazzName)) {
+                subRptDataSource = new JRMapCollectionDataSource((Collection<Map<String, ?>>) (Collection<?>) bizDatasetTableV);
             } else {
                 throw new RuntimeException("数据类型不匹配！");
             }
             rptBizDatasetTableParams.put(bizDatasetTableK, subRptDataSource);
             index++;
         }
-        
-        // 3.按文件格式导出
-        exportByFormat(response, jasperFileName, rptFileName, rptBizDatasetTableParams, rptBizDatasetDS, rptFileFormat);
+        return rptBizDatasetTableParams;
+    }
+    
+    /**
+     * 导出报表（流式数据源）
+     * Table控件数据逐行读取，行类型（Map/POJO）按行自动识别，无需预先加载至List
+     * 数据源实现了AutoCloseable（如MyBatis Cursor）时，导出结束后自动关闭
+     * @param response
+     * @param jasperFileName 报表模板文件名
+     * @param rptFileName 报表文件名
+     * @param rptFileFormat 报表格式
+     * @param rptBizDatasetKV 基础控件数据集KV
+     * @param rptBizDatasetTableKV Table控件流式数据集KV
+     * @throws Exception
+     */
+    public static void exportStream(HttpServletResponse response, String jasperFileName, String rptFileName, String rptFileFormat, Map<String, ?> rptBizDatasetKV, LinkedHashMap<String, ? extends Iterable<?>> rptBizDatasetTableKV) throws Exception {
+        try {
+            // 0.基础控件数据采用JRDataSource来传参
+            JRDataSource rptBizDatasetDS = buildBizDatasetDS(rptBizDatasetKV);
+            
+            // 1.Table控件数据采用Map<>来传参
+            Map<String, Object> rptBizDatasetTableParams = new HashMap<String, Object>();
+            for (Entry<String, ? extends Iterable<?>> entry : rptBizDatasetTableKV.entrySet()) {
+                rptBizDatasetTableParams.put(entry.getKey(), new JRIterableDataSource(entry.getValue()));
+            }
+            
+            // 2.按文件格式导出
+            exportByFormat(response, jasperFileName, rptFileName, rptBizDatasetTableParams, rptBizDatasetDS, rptFileFormat);
+        } finally {
+            for (Iterable<?> rows : rptBizDatasetTableKV.values()) {
+                if (rows instanceof AutoCloseable) {
+                    ((AutoCloseable) rows).close();
+                }
+            }
+        }
     }
     
     /**
@@ -110,56 +271,226 @@ public class JasperUtil {
      * @throws Exception
      */
     public static void exportByFormat(HttpServletResponse response, String jasperFileName, String rptFileName, Map<String, Object> rptBizDatasetTableParams, JRDataSource rptBizDatasetDS, String rptFileFormat) throws Exception {
-        File rptFile = compileReportToFile(jasperFileName);
+        JasperReport jasperReport = getReport(jasperFileName);
+        // 大报表启用分页交换，已填充的页面写入临时文件，不再全部驻留堆内存
+        JRVirtualizer virtualizer = createVirtualizer();
+        if (virtualizer != null) {
+            rptBizDatasetTableParams = new HashMap<String, Object>(rptBizDatasetTableParams);
+            rptBizDatasetTableParams.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+        }
+        try {
+            JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, rptBizDatasetTableParams, rptBizDatasetDS);
+            exportPrints(response, rptFileName, rptFileFormat, Collections.singletonList(jasperPrint));
+        } finally {
+            if (virtualizer != null) {
+                virtualizer.cleanup();
+            }
+        }
+    }
+    
+    /**
+     * 按文件格式导出已填充的报表，多个报表合并为一个文件
+     * @param response
+     * @param rptFileName 报表文件名
+     * @param rptFileFormat 报表格式
+     * @param jasperPrints 已填充的报表
+     * @throws Exception
+     */
+    private static void exportPrints(HttpServletResponse response, String rptFileName, String rptFileFormat, List<JasperPrint> jasperPrints) throws Exception {
         switch (rptFileFormat) {
             case "pdf":
-                pdf(response, rptFileName, rptFile.getPath(), rptBizDatasetTableParams, rptBizDatasetDS);
+                pdf(response, rptFileName, jasperPrints);
                 break;
             case "xlsx":
-                xlsx(response, rptFileName, rptFile.getPath(), rptBizDatasetTableParams, rptBizDatasetDS);
+                xlsx(response, rptFileName, jasperPrints);
                 break;
             case "html":
-                html(response, rptFile.getPath(), rptBizDatasetTableParams, rptBizDatasetDS);
+                html(response, jasperPrints);
                 break;
             default:
-                pdf(response, rptFileName, rptFile.getPath(), rptBizDatasetTableParams, rptBizDatasetDS);
+                pdf(response, rptFileName, jasperPrints);
                 break;
         }
     }
     
     /**
-     * 编译至文件
-     * @param jasperFileName
+     * 设置分页交换阈值
+     * 填充时内存中最多保留maxSize页，超出部分交换至临时文件；小于等于0时不启用（默认）
+     * 默认取系统属性 niko.jasper.virtualizer.max-size
+     * @param maxSize 内存中保留的最大页数
+     */
+    public static void setVirtualizerMaxSize(int maxSize) {
+        JasperUtil.virtualizerMaxSize = maxSize;
+    }
+    
+    /**
+     * 设置分页交换文件目录，默认 java.io.tmpdir
+     * @param swapDirectory
+     */
+    public static void setVirtualizerSwapDirectory(String swapDirectory) {
+        JasperUtil.virtualizerSwapDirectory = swapDirectory;
+    }
+    
+    /**
+     * 创建分页交换器，每次导出独享一个交换文件，导出结束后清理
+     * @return 未启用时返回null
+     */
+    private static JRVirtualizer createVirtualizer() {
+        if (virtualizerMaxSize <= 0) {
+            return null;
+        }
+        JRSwapFile swapFile = new JRSwapFile(virtualizerSwapDirectory, SWAP_BLOCK_SIZE, SWAP_MIN_GROW_COUNT);
+        return new JRSwapFileVirtualizer(virtualizerMaxSize, swapFile, true);
+    }
+    
+    /**
+     * 开启/关闭开发模式
+     * 开发模式下忽略预编译的.jasper，每次导出都会检查.jrxml的修改时间，变更后自动重新编译
+     * 默认取系统属性 niko.jasper.dev-mode
+     * @param devMode
+     */
+    public static void setDevMode(boolean devMode) {
+        JasperUtil.devMode = devMode;
+    }
+    
+    /**
+     * 预加载报表模板，一般在应用启动时调用，避免首次导出时加载
+     * @param jasperFileNames 报表模板文件名
+     * @throws IOException
+     * @throws JRException
+     */
+    public static void preloadReports(String... jasperFileNames) throws IOException, JRException {
+        for (String jasperFileName : jasperFileNames) {
+            getReport(jasperFileName);
+        }
+    }
+    
+    /**
+     * 预加载classpath*:templates/rpt/下的全部报表模板（.jasper/.jrxml）
+     * @return 预加载的模板数量
+     * @throws IOException
+     * @throws JRException
+     */
+    public static int preloadReports() throws IOException, JRException {
+        Set<String> jasperFileNames = new LinkedHashSet<String>();
+        for (Resource resource : RESOURCE_RESOLVER.getResources("classpath*:" + RPT_TEMPLATE_DIR + "*" + JASPER_SUFFIX)) {
+            jasperFileNames.add(StringUtils.stripFilenameExtension(resource.getFilename()));
+        }
+        for (Resource resource : RESOURCE_RESOLVER.getResources("classpath*:" + RPT_TEMPLATE_DIR + "*" + JRXML_SUFFIX)) {
+            jasperFileNames.add(StringUtils.stripFilenameExtension(resource.getFilename()));
+        }
+        preloadReports(jasperFileNames.toArray(new String[jasperFileNames.size()]));
+        return jasperFileNames.size();
+    }
+    
+    /**
+     * 移除已编译的报表模板，下次导出时重新加载
+     * @param jasperFileName 报表模板文件名
+     */
+    public static void evictReport(String jasperFileName) {
+        REPORT_CACHE.remove(jasperFileName);
+    }
+    
+    /**
+     * 清空已编译的报表模板
+     */
+    public static void clearReportCache() {
+        REPORT_CACHE.clear();
+    }
+    
+    /**
+     * 获取已编译的报表模板
+     * 首次使用时加载并缓存，之后直接复用内存中的JasperReport
+     * 优先加载构建期预编译的.jasper，不存在时编译.jrxml；均以classpath流读取，兼容fat jar
+     * 开发模式下始终以.jrxml为准，修改后自动重新编译
+     * @param jasperFileName 报表模板文件名
      * @return
+     * @throws IOException
      * @throws JRException
+     */
+    private static JasperReport getReport(String jasperFileName) throws IOException, JRException {
+        CachedReport cached = REPORT_CACHE.get(jasperFileName);
+        if (cached != null && (!devMode || cached.lastModified == lastModified(jrxmlResource(jasperFileName)))) {
+            return cached.report;
+        }
+        // 同一模板只加载一次，并发请求等待加载结果
+        synchronized (REPORT_LOCKS.computeIfAbsent(jasperFileName, k -> new Object())) {
+            cached = REPORT_CACHE.get(jasperFileName);
+            Resource jrxmlResource = jrxmlResource(jasperFileName);
+            if (cached == null || (devMode && cached.lastModified != lastModified(jrxmlResource))) {
+                cached = loadReport(jasperFileName, jrxmlResource);
+                REPORT_CACHE.put(jasperFileName, cached);
+            }
+            return cached.report;
+        }
+    }
+    
+    /**
+     * 加载报表模板
+     * @param jasperFileName
+     * @param jrxmlResource
+     * @return
      * @throws IOException
+     * @throws JRException
+     */
+    private static CachedReport loadReport(String jasperFileName, Resource jrxmlResource) throws IOException, JRException {
+        Resource jasperResource = new ClassPathResource(RPT_TEMPLATE_DIR + jasperFileName + JASPER_SUFFIX);
+        if (!devMode && jasperResource.exists()) {
+            try (InputStream is = jasperResource.getInputStream()) {
+                return new CachedReport((JasperReport) JRLoader.loadObject(is), 0L);
+            }
+        }
+        if (!jrxmlResource.exists()) {
+            throw new FileNotFoundException("报表模板不存在：" + RPT_TEMPLATE_DIR + jasperFileName);
+        }
+        long lastModified = lastModified(jrxmlResource);
+        long start = System.currentTimeMillis();
+        JasperReport jasperReport;
+        try (InputStream is = jrxmlResource.getInputStream()) {
+            jasperReport = JasperCompileManager.compileReport(is);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("编译报表模板 <== {}，耗时 {} ms", jrxmlResource.getFilename(), System.currentTimeMillis() - start);
+        }
+        return new CachedReport(jasperReport, lastModified);
+    }
+    
+    private static Resource jrxmlResource(String jasperFileName) {
+        return new ClassPathResource(RPT_TEMPLATE_DIR + jasperFileName + JRXML_SUFFIX);
+    }
+    
+    /**
+     * 模板修改时间，jar内资源或无法获取时返回0
+     * @param resource
+     * @return
      */
-    private static File compileReportToFile(String jasperFileName) throws FileNotFoundException, JRException {
-        String jrxmlPath = ResourceUtils.getFile("classpath:templates/rpt/" + jasperFileName + ".jrxml").getAbsolutePath();
-        String jasperPath = ResourceUtils.getFile("classpath:templates/rpt/" + jasperFileName + ".jasper").getAbsolutePath();
-        JasperCompileManager.compileReportToFile(jrxmlPath);
-        File rptFile = new File(jasperPath);
-        return rptFile;
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0L;
+        }
     }
     
     /**
      * 生成PDF
      * @param response
      * @param rptFileName
-     * @param rptFilePath
-     * @param rptBizDatasetTableParams
-     * @param rptBizDatasetDS
+     * @param jasperPrints
      * @throws Exception
      */
-    private static void pdf(HttpServletResponse response, String rptFileName, String rptFilePath, Map<String, Object> rptBizDatasetTableParams, JRDataSource rptBizDatasetDS) throws Exception {
-        byte[] bytes = JasperRunManager.runReportToPdf(rptFilePath, rptBizDatasetTableParams, rptBizDatasetDS);
+    private static void pdf(HttpServletResponse response, String rptFileName, List<JasperPrint> jasperPrints) throws Exception {
         String fileName = rptFileName + "_" + TimeUtil.formatDate(new Date(), "yyyyMMdd_HHmmss") + ".pdf";
         fileName = new String(fileName.getBytes("utf-8"), "ISO_8859_1");
         response.reset(); // 清空输出流
         response.setHeader("Content-Disposition", "attachment;filename=" + fileName);
         response.setContentType("application/pdf;charset=UTF-8");
         ServletOutputStream ouputStream = response.getOutputStream();
-        ouputStream.write(bytes, 0, bytes.length);
+        // 直接导出至响应流，不再生成完整的byte[]
+        JRPdfExporter exporter = new JRPdfExporter();
+        exporter.setExporterInput(SimpleExporterInput.getInstance(jasperPrints));
+        exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(ouputStream));
+        exporter.exportReport();
         ouputStream.flush();
         ouputStream.close();
     }
@@ -167,17 +498,14 @@ public class JasperUtil {
     /**
      * 生成HTML
      * @param response
-     * @param rptFilePath
-     * @param rptBizDatasetTableParams
-     * @param rptBizDatasetDS
+     * @param jasperPrints
      * @throws Exception
      */
-    private static void html(HttpServletResponse response, String rptFilePath, Map<String, Object> rptBizDatasetTableParams, JRDataSource rptBizDatasetDS) throws Exception {
+    private static void html(HttpServletResponse response, List<JasperPrint> jasperPrints) throws Exception {
         response.reset(); // 清空输出流
         response.setContentType("text/html;charset=UTF-8");
-        JasperPrint jasperPrint = JasperFillManager.fillReport(rptFilePath, rptBizDatasetTableParams, rptBizDatasetDS);
         HtmlExporter exporter = new HtmlExporter(DefaultJasperReportsContext.getInstance());
-        exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+        exporter.setExporterInput(SimpleExporterInput.getInstance(jasperPrints));
         exporter.setExporterOutput(new SimpleHtmlExporterOutput(response.getWriter()));
         exporter.exportReport();
     }
@@ -186,25 +514,59 @@ public class JasperUtil {
      * 生成XLSX
      * @param response
      * @param rptFileName
-     * @param rptFilePath
-     * @param rptBizDatasetTableParams
-     * @param rptBizDatasetDS
+     * @param jasperPrints
      * @throws Exception
      */
-    private static void xlsx(HttpServletResponse response, String rptFileName, String rptFilePath, Map<String, Object> rptBizDatasetTableParams, JRDataSource rptBizDatasetDS) throws Exception {
+    private static void xlsx(HttpServletResponse response, String rptFileName, List<JasperPrint> jasperPrints) throws Exception {
         String fileName = rptFileName + "_" + TimeUtil.formatDate(new Date(), "yyyyMMdd_HHmmss") + ".xlsx";
         response.reset(); // 清空输出流
         response.setHeader("Content-disposition", "attachment; filename=" + fileName);
         response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet;charset=UTF-8");
-        JasperPrint jasperPrint = JasperFillManager.fillReport(rptFilePath, rptBizDatasetTableParams, rptBizDatasetDS);
         JRXlsxExporter exporter = new JRXlsxExporter();
-        exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+        exporter.setExporterInput(SimpleExporterInput.getInstance(jasperPrints));
         exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(response.getOutputStream()));
         SimpleXlsxReportConfiguration configuration = new SimpleXlsxReportConfiguration();
         configuration.setOnePagePerSheet(false);
         exporter.setConfiguration(configuration);
         exporter.exportReport();
     }
+    
+    /**
+     * 已编译报表模板
+     */
+    private static class CachedReport {
+        private final JasperReport report;
+        private final long lastModified;
+        
+        private CachedReport(JasperReport report, long lastModified) {
+            this.report = report;
+            this.lastModified = lastModified;
+        }
+    }
+    
+    /**
+     * 报表段
+     * 并行导出时每个报表段对应一个模板及其数据集
+     */
+    public static class RptSection {
+        private final String jasperFileName;
+        private final Map<String, ?> rptBizDatasetKV;
+        private final LinkedHashMap<String, List<?>> rptBizDatasetTableKV;
+        private final Class<?>[] rptBizDatasetTableClazzes;
+        
+        /**
+         * @param jasperFileName 报表模板文件名
+         * @param rptBizDatasetKV 基础控件数据集KV
+         * @param rptBizDatasetTableKV Table控件数据集KV
+         * @param rptBizDatasetTableClazzes Table控件数据集类型数组
+         */
+        public RptSection(String jasperFileName, Map<String, ?> rptBizDatasetKV, LinkedHashMap<String, List<?>> rptBizDatasetTableKV, Class<?>... rptBizDatasetTableClazzes) {
+            this.jasperFileName = jasperFileName;
+            this.rptBizDatasetKV = rptBizDatasetKV;
+            this.rptBizDatasetTableKV = rptBizDatasetTableKV;
+            this.rptBizDatasetTableClazzes = rptBizDatasetTableClazzes;
+        }
+    }
 }
 
 
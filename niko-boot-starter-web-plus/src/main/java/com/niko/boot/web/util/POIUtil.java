@@ -10,13 +10,17 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.apache.poi.hssf.usermodel.HSSFDateUtil;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
@@ -25,12 +29,8 @@ import org.apache.poi.ss.usermodel.VerticalAlignment;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.util.IOUtils;
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFCellStyle;
-import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFRichTextString;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,6 +51,8 @@ public class POIUtil {
     private final static String MSG_FILE_NOT_FOUND = "文件不存在！";
     private static int titleFontSize = 14;
     private static int headerFontSize = 10;
+    /** 流式写入时内存中保留的行数，超出部分刷入临时文件 */
+    private final static int ROW_ACCESS_WINDOW_SIZE = 100;
     
     /**
      * 读入EXCEL
@@ -219,13 +221,72 @@ public class POIUtil {
      */
     public static OutputStream writeExcel(OutputStream os, String sheetName, String title, String headerNames,
             String dataColumn, List<?> list) {
+        return writeExcel(os, sheetName, title, headerNames, dataColumn, list != null ? list.iterator() : null);
+    }
+    
+    /**
+     * 写EXCEL（流式）
+     * 数据源可为 MyBatis Cursor 等 Iterable，边读边写，内存中只保留滑动窗口内的行
+     * 
+     * @param os
+     * @param sheetName
+     * @param title
+     * @param headerNames
+     * @param dataColumn
+     * @param rows 行数据源
+     * @return
+     */
+    public static OutputStream writeExcel(OutputStream os, String sheetName, String title, String headerNames,
+            String dataColumn, Iterable<?> rows) {
+        return writeExcel(os, sheetName, title, headerNames, dataColumn, rows != null ? rows.iterator() : null);
+    }
+    
+    /**
+     * 写EXCEL（流式）
+     * 写入结束（含异常）后关闭 rows，BaseDao.stream 返回的流随之释放游标与连接，调用方无需再关闭：
+     * <pre>{@code
+     * POIUtil.writeExcel(os, "用户", null, "编号,姓名", "id,name", userDao.stream("query", param, 500));
+     * }</pre>
+     * 
+     * @param os
+     * @param sheetName
+     * @param title
+     * @param headerNames
+     * @param dataColumn
+     * @param rows 行数据流
+     * @return
+     */
+    public static OutputStream writeExcel(OutputStream os, String sheetName, String title, String headerNames,
+            String dataColumn, Stream<?> rows) {
+        if (rows == null) {
+            return writeExcel(os, sheetName, title, headerNames, dataColumn, (Iterator<?>) null);
+        }
+        try (Stream<?> stream = rows) {
+            return writeExcel(os, sheetName, title, headerNames, dataColumn, stream.iterator());
+        }
+    }
+    
+    /**
+     * 写EXCEL
+     * 采用SXSSF按窗口刷盘，峰值内存与数据总行数无关
+     * 
+     * @param os
+     * @param sheetName
+     * @param title
+     * @param headerNames
+     * @param dataColumn
+     * @param rows
+     * @return
+     */
+    private static OutputStream writeExcel(OutputStream os, String sheetName, String title, String headerNames,
+            String dataColumn, Iterator<?> rows) {
+        SXSSFWorkbook wbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW_SIZE);
         try {
-            XSSFWorkbook wbook = new XSSFWorkbook();
-            XSSFSheet wsheet = wbook.createSheet(sheetName);
+            Sheet wsheet = wbook.createSheet(sheetName);
             wsheet.setDefaultColumnWidth(15);
-            XSSFCellStyle titleCellStyle = getTitleStyle(wbook);
-            XSSFCellStyle headerCellStyle = getHeaderStyle(wbook);
-            XSSFCellStyle contentCellStyle = getContentStyle(wbook);
+            CellStyle titleCellStyle = getTitleStyle(wbook);
+            CellStyle headerCellStyle = getHeaderStyle(wbook);
+            CellStyle contentCellStyle = getContentStyle(wbook);
             // 待写入的行号
             int writingRow = 0;
             // 列名
@@ -243,14 +304,14 @@ public class POIUtil {
                 if (headerNameArray != null && headerNameArray.length > 1) {
                     wsheet.addMergedRegion(new CellRangeAddress(0, 0, 0, headerNameArray.length - 1));
                 }
-                XSSFCell c = wsheet.createRow(writingRow).createCell(0);
+                Cell c = wsheet.createRow(writingRow).createCell(0);
                 c.setCellStyle(titleCellStyle);
                 c.setCellValue(new XSSFRichTextString(title));
                 writingRow++;
             }
             // 写入列名
             if (headerNameArray != null && headerNameArray.length > 0) {
-                XSSFRow r1 = wsheet.createRow(writingRow);
+                Row r1 = wsheet.createRow(writingRow);
                 for (int i = 0; i < headerNameArray.length; i++) {
                     r1.createCell(i).setCellValue(new XSSFRichTextString(headerNameArray[i]));
                     r1.getCell(i).setCellStyle(headerCellStyle);
@@ -258,79 +319,11 @@ public class POIUtil {
                 writingRow++;
             }
             // 写入每行每列数据
-            if (list != null && dataColumnArray != null) {
-                for (int i = 0; i < list.size(); i++) {
-                    int columnIndex = 0;
-                    String v = "";
-                    XSSFRow rContent = wsheet.createRow(i + writingRow);
-                    Object item = list.get(i);
-                    
-                    // 尝试通过反射获取getString方法（兼容BaseModel类型，但不直接依赖）
-                    boolean hasGetStringMethod = false;
-                    try {
-                        Method getStringMethod = item.getClass().getMethod("getString", String.class);
-                        if (getStringMethod != null) {
-                            hasGetStringMethod = true;
-                        }
-                    } catch (NoSuchMethodException e) {
-                        // 没有getString方法，继续其他逻辑
-                    }
-                    
-                    // 如果对象有getString方法，使用它（兼容BaseModel）
-                    if (hasGetStringMethod) {
-                        try {
-                            Method getStringMethod = item.getClass().getMethod("getString", String.class);
-                            for (int j = 0; j < dataColumnArray.length; j++) {
-                                v = (String) getStringMethod.invoke(item, dataColumnArray[j]);
-                                if (v != null) {
-                                    rContent.createCell(columnIndex).setCellValue(new XSSFRichTextString(v));
-                                } else {
-                                    rContent.createCell(columnIndex).setCellValue(new XSSFRichTextString(""));
-                                }
-                                rContent.getCell(j).setCellStyle(contentCellStyle);
-                                columnIndex++;
-                            }
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
-                    }
-                    // Map 类型
-                    else if (item instanceof Map) {
-                        Map<?, ?> map = (Map<?, ?>) item;
-                        for (int j = 0; j < dataColumnArray.length; j++) {
-                            Object value = map.get(dataColumnArray[j]);
-                            v = value != null ? String.valueOf(value) : "";
-                            if (v != null && !v.equals("null")) {
-                                rContent.createCell(columnIndex).setCellValue(new XSSFRichTextString(v));
-                            } else {
-                                rContent.createCell(columnIndex).setCellValue(new XSSFRichTextString(""));
-                            }
-                            rContent.getCell(j).setCellStyle(contentCellStyle);
-                            columnIndex++;
-                        }
-                    }
-                    // 其他类型（通过反射调用getter方法）
-                    else {
-                        try {
-                            for (int j = 0; j < dataColumnArray.length; j++) {
-                                String fieldName = dataColumnArray[j];
-                                String methodName = "get" + fieldName.substring(0, 1).toUpperCase()
-                                        + fieldName.substring(1);
-                                Method m = item.getClass().getMethod(methodName);
-                                Object value = m.invoke(item);
-                                v = value != null ? String.valueOf(value) : "";
-                                if (v != null && !v.equals("null")) {
-                                    rContent.createCell(columnIndex).setCellValue(new XSSFRichTextString(v));
-                                } else {
-                                    rContent.createCell(columnIndex).setCellValue(new XSSFRichTextString(""));
-                                }
-                                rContent.getCell(j).setCellStyle(contentCellStyle);
-                                columnIndex++;
-                            }
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
-                    }
+            if (rows != null && dataColumnArray != null) {
+                while (rows.hasNext()) {
+                    Object item = rows.next();
+                    Row rContent = wsheet.createRow(writingRow++);
+                    writeRow(rContent, item, dataColumnArray, contentCellStyle);
                 }
             }
             wbook.write(os); // 写入文件
@@ -341,10 +334,94 @@ public class POIUtil {
                 e1.printStackTrace();
             }
             e.printStackTrace();
+        } finally {
+            // 删除SXSSF临时文件
+            wbook.dispose();
+            IOUtils.closeQuietly(wbook);
         }
         return os;
     }
     
+    /**
+     * 写入单行数据
+     * 
+     * @param rContent
+     * @param item
+     * @param dataColumnArray
+     * @param contentCellStyle
+     */
+    private static void writeRow(Row rContent, Object item, String[] dataColumnArray, CellStyle contentCellStyle) {
+        int columnIndex = 0;
+        String v = "";
+        
+        // 尝试通过反射获取getString方法（兼容BaseModel类型，但不直接依赖）
+        boolean hasGetStringMethod = false;
+        try {
+            Method getStringMethod = item.getClass().getMethod("getString", String.class);
+            if (getStringMethod != null) {
+                hasGetStringMethod = true;
+            }
+        } catch (NoSuchMethodException e) {
+            // 没有getString方法，继续其他逻辑
+        }
+        
+        // 如果对象有getString方法，使用它（兼容BaseModel）
+        if (hasGetStringMethod) {
+            try {
+                Method getStringMethod = item.getClass().getMethod("getString", String.class);
+                for (int j = 0; j < dataColumnArray.length; j++) {
+                    v = (String) getStringMethod.invoke(item, dataColumnArray[j]);
+                    if (v != null) {
+                        rContent.createCell(columnIndex).setCellValue(new XSSFRichTextString(v));
+                    } else {
+                        rContent.createCell(columnIndex).setCellValue(new XSSFRichTextString(""));
+                    }
+                    rContent.getCell(j).setCellStyle(contentCellStyle);
+                    columnIndex++;
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        // Map 类型
+        else if (item instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) item;
+            for (int j = 0; j < dataColumnArray.length; j++) {
+                Object value = map.get(dataColumnArray[j]);
+                v = value != null ? String.valueOf(value) : "";
+                if (v != null && !v.equals("null")) {
+                    rContent.createCell(columnIndex).setCellValue(new XSSFRichTextString(v));
+                } else {
+                    rContent.createCell(columnIndex).setCellValue(new XSSFRichTextString(""));
+                }
+                rContent.getCell(j).setCellStyle(contentCellStyle);
+                columnIndex++;
+            }
+        }
+        // 其他类型（通过反射调用getter方法）
+        else {
+            try {
+                for (int j = 0; j < dataColumnArray.length; j++) {
+                    String fieldName = dataColumnArray[j];
+                    String methodName = "get" + fieldName.substring(0, 1).toUpperCase()
+                            + fieldName.substring(1);
+                    Method m = item.getClass().getMethod(methodName);
+                    Object value = m.invoke(item);
+                    v = value != null ? String.valueOf(value) : "";
+                    if (v != null && !v.equals("null")) {
+                        rContent.createCell(columnIndex).setCellValue(new XSSFRichTextString(v));
+                    } else {
+                        rContent.createCell(columnIndex).setCellValue(new XSSFRichTextString(""));
+                    }
+                    rContent.getCell(j).setCellStyle(contentCellStyle);
+                    columnIndex++;
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+    
     public static void checkFile(MultipartFile file) throws IOException {
         // 判断文件是否存在
         if (null == file) {
@@ -477,8 +554,8 @@ public class POIUtil {
     }
     
     // 设置标题样式
-    private static XSSFCellStyle getTitleStyle(XSSFWorkbook wbook) {
-        XSSFCellStyle titleCellStyle = wbook.createCellStyle();
+    private static CellStyle getTitleStyle(Workbook wbook) {
+        CellStyle titleCellStyle = wbook.createCellStyle();
         // 背景色
         titleCellStyle.setFillForegroundColor(IndexedColors.SKY_BLUE.getIndex());
         titleCellStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
@@ -486,7 +563,7 @@ public class POIUtil {
         titleCellStyle.setAlignment(HorizontalAlignment.CENTER);
         titleCellStyle.setVerticalAlignment(VerticalAlignment.CENTER);
         // 字体
-        XSSFFont titleFont = wbook.createFont();
+        Font titleFont = wbook.createFont();
         titleFont.setFontName("仿宋_GB2312");
         titleFont.setFontHeightInPoints((short) titleFontSize);
         titleCellStyle.setFont(titleFont);
@@ -494,8 +571,8 @@ public class POIUtil {
     }
     
     // 设置表头样式
-    private static XSSFCellStyle getHeaderStyle(XSSFWorkbook wbook) {
-        XSSFCellStyle headerCellStyle = wbook.createCellStyle();
+    private static CellStyle getHeaderStyle(Workbook wbook) {
+        CellStyle headerCellStyle = wbook.createCellStyle();
         // 背景色
         headerCellStyle.setFillForegroundColor(IndexedColors.LIGHT_TURQUOISE.getIndex());
         headerCellStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
@@ -503,7 +580,7 @@ public class POIUtil {
         headerCellStyle.setAlignment(HorizontalAlignment.CENTER);
         headerCellStyle.setVerticalAlignment(VerticalAlignment.CENTER);
         // 字体
-        XSSFFont font = wbook.createFont();
+        Font font = wbook.createFont();
         font.setFontName("Arial");
         font.setFontHeightInPoints((short) headerFontSize);
         headerCellStyle.setFont(font);
@@ -511,13 +588,13 @@ public class POIUtil {
     }
     
     // 设置内容样式
-    private static XSSFCellStyle getContentStyle(XSSFWorkbook wbook) {
-        XSSFCellStyle contentCellStyle = wbook.createCellStyle();
+    private static CellStyle getContentStyle(Workbook wbook) {
+        CellStyle contentCellStyle = wbook.createCellStyle();
         // 居中
         contentCellStyle.setAlignment(HorizontalAlignment.RIGHT);
         contentCellStyle.setVerticalAlignment(VerticalAlignment.CENTER);
         // 字体
-        XSSFFont font = wbook.createFont();
+        Font font = wbook.createFont();
         font.setFontName("Arial");
         contentCellStyle.setFont(font);
         return contentCellStyle;